@@ -24,32 +24,72 @@
 package com.nad.blurview;
 
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.os.Build;
 import android.util.AttributeSet;
+import android.view.View;
 import android.view.ViewGroup;
 import android.widget.FrameLayout;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.ViewTreeLifecycleOwner;
 
+import com.nad.blurview.config.BlurConfig;
 import com.nad.blurview.utils.BlurAlgorithm;
+import com.nad.blurview.utils.BlurLifecycleObserver;
+import com.nad.blurview.utils.BlurMemoryTrimmer;
 import com.nad.blurview.utils.BlurOutlineProvider;
 import com.nad.blurview.utils.BlurRenderer;
 import com.nad.blurview.utils.BlurViewManager;
+import com.nad.blurview.utils.CpuBlurAlgorithms;
 import com.nad.blurview.utils.NoOpRenderer;
+import com.nad.blurview.utils.PyramidBlurKernel;
 import com.nad.blurview.utils.RenderEffectBlurAlgorithm;
-import com.nad.blurview.utils.StackBlurAlgorithm;
+import com.nad.blurview.utils.StackBlurKernel;
 
+import java.util.Collections;
 import java.util.Objects;
+import java.util.Set;
 
 
 public class NadBlur extends FrameLayout {
 
     public BlurRenderer blurRenderer;
     public int overlayColor;
+    private boolean largeRadiusEnabled;
+    private int cpuAlgorithm = BlurConfig.CPU_ALGORITHM_STACK;
+    private boolean regionCaptureEnabled = true;
+    private Set<View> excludedViews = Collections.emptySet();
+    private float maxRefreshRate;
+    private boolean dirtyTrackingEnabled = true;
+    private boolean scrollShiftEnabled;
+    private int overCaptureMargin;
+    private int supersampleFactor = 1;
+    private boolean pauseWhenUnfocused = true;
+    // Lifecycle host; tanpa owner eksplisit diambil dari ViewTreeLifecycleOwner saat attach
+    private final BlurLifecycleObserver lifecycleObserver = new BlurLifecycleObserver(new BlurLifecycleObserver.Callback() {
+        @Override
+        public void onHostStartedChanged(boolean started) {
+            hostStarted = started;
+            if (blurRenderer instanceof BlurViewManager) {
+                ((BlurViewManager) blurRenderer).setHostStarted(started);
+            }
+        }
+
+        @Override
+        public void onHostDestroyed() {
+            if (blurRenderer instanceof BlurViewManager) {
+                ((BlurViewManager) blurRenderer).releaseResources();
+            }
+        }
+    });
+    private @Nullable LifecycleOwner lifecycleOwner;
+    private boolean hostStarted = true;
 
     public NadBlur(@NonNull Context context) {
         super(context);
@@ -68,6 +108,7 @@ public class NadBlur extends FrameLayout {
 
     private void init(Context context, AttributeSet attrs) {
         blurRenderer = new NoOpRenderer();
+        BlurMemoryTrimmer.install(context);
         if (attrs != null) {
             try (TypedArray a = context.getTheme().obtainStyledAttributes(
                     attrs, R.styleable.NadBlur, 0, 0)) {
@@ -85,15 +126,25 @@ public class NadBlur extends FrameLayout {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
             return new RenderEffectBlurAlgorithm();
         } else {
-            return new StackBlurAlgorithm();
+            return CpuBlurAlgorithms.create(cpuAlgorithm, largeRadiusEnabled);
         }
     }
 
     public void setupWithFallback(ViewGroup rootView, ViewGroup blurTarget, Boolean clipToOutline, Float requestedRadius) {
-        float capped = Math.max(2f, Math.min(requestedRadius != null ? requestedRadius : 20f, 25f));
+        float maxRadius = largeRadiusEnabled ? PyramidBlurKernel.MAX_RADIUS : StackBlurKernel.MAX_RADIUS;
+        float capped = Math.max(2f, Math.min(requestedRadius != null ? requestedRadius : 20f, maxRadius));
         blurRenderer.destroy();
 
         BlurViewManager blurManager = new BlurViewManager(this, blurTarget, this.overlayColor, getBlurAlgorithm());
+        blurManager.setRegionCaptureEnabled(regionCaptureEnabled);
+        blurManager.setExcludedViews(excludedViews);
+        blurManager.setMaxRefreshRate(maxRefreshRate);
+        blurManager.setDirtyTrackingEnabled(dirtyTrackingEnabled);
+        blurManager.setScrollShiftEnabled(scrollShiftEnabled);
+        blurManager.setOverCaptureMargin(overCaptureMargin);
+        blurManager.setSupersampleFactor(supersampleFactor);
+        blurManager.setPauseWhenUnfocused(pauseWhenUnfocused);
+        blurManager.setHostStarted(hostStarted);
         this.blurRenderer = blurManager;
         blurManager.setBlurRadius(capped);
 
@@ -108,7 +159,17 @@ public class NadBlur extends FrameLayout {
     public void attachToRoot(ViewGroup rootView) {
         BlurAlgorithm blurAlgorithm = getBlurAlgorithm();
         blurRenderer.destroy();
-        blurRenderer = new BlurViewManager(this, rootView, overlayColor, blurAlgorithm);
+        BlurViewManager blurManager = new BlurViewManager(this, rootView, overlayColor, blurAlgorithm);
+        blurManager.setRegionCaptureEnabled(regionCaptureEnabled);
+        blurManager.setExcludedViews(excludedViews);
+        blurManager.setMaxRefreshRate(maxRefreshRate);
+        blurManager.setDirtyTrackingEnabled(dirtyTrackingEnabled);
+        blurManager.setScrollShiftEnabled(scrollShiftEnabled);
+        blurManager.setOverCaptureMargin(overCaptureMargin);
+        blurManager.setSupersampleFactor(supersampleFactor);
+        blurManager.setPauseWhenUnfocused(pauseWhenUnfocused);
+        blurManager.setHostStarted(hostStarted);
+        blurRenderer = blurManager;
     }
 
     @Override
@@ -126,12 +187,20 @@ public class NadBlur extends FrameLayout {
         }
     }
 
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        lifecycleObserver.bind(lifecycleOwner != null ? lifecycleOwner : ViewTreeLifecycleOwner.get(this));
+    }
+
     @Override
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
         if (blurRenderer != null) {
             blurRenderer.enableAutoUpdate(false);
         }
+        // Lifecycle host menyimpan observer; lepas agar view yang dibuang tidak tertahan
+        lifecycleObserver.unbind();
     }
 
     @Override
@@ -145,6 +214,106 @@ public class NadBlur extends FrameLayout {
         this.overlayColor = overlayColor;
     }
 
+    public void setLargeRadiusEnabled(boolean largeRadiusEnabled) {
+        if (this.largeRadiusEnabled == largeRadiusEnabled) return;
+        this.largeRadiusEnabled = largeRadiusEnabled;
+        refreshCpuAlgorithm();
+    }
+
+    public void setCpuAlgorithm(int cpuAlgorithm) {
+        if (this.cpuAlgorithm == cpuAlgorithm) return;
+        this.cpuAlgorithm = cpuAlgorithm;
+        refreshCpuAlgorithm();
+    }
+
+    public void setRegionCaptureEnabled(boolean regionCaptureEnabled) {
+        this.regionCaptureEnabled = regionCaptureEnabled;
+        if (blurRenderer instanceof BlurViewManager) {
+            ((BlurViewManager) blurRenderer).setRegionCaptureEnabled(regionCaptureEnabled);
+        }
+    }
+
+    public void setExcludedViews(Set<View> excludedViews) {
+        this.excludedViews = excludedViews != null ? excludedViews : Collections.emptySet();
+        if (blurRenderer instanceof BlurViewManager) {
+            ((BlurViewManager) blurRenderer).setExcludedViews(this.excludedViews);
+        }
+    }
+
+    public void setMaxRefreshRate(float maxRefreshRate) {
+        this.maxRefreshRate = maxRefreshRate;
+        blurRenderer.setMaxRefreshRate(maxRefreshRate);
+    }
+
+    public void setDirtyTrackingEnabled(boolean dirtyTrackingEnabled) {
+        this.dirtyTrackingEnabled = dirtyTrackingEnabled;
+        if (blurRenderer instanceof BlurViewManager) {
+            ((BlurViewManager) blurRenderer).setDirtyTrackingEnabled(dirtyTrackingEnabled);
+        }
+    }
+
+    public void setScrollShiftEnabled(boolean scrollShiftEnabled) {
+        this.scrollShiftEnabled = scrollShiftEnabled;
+        if (blurRenderer instanceof BlurViewManager) {
+            ((BlurViewManager) blurRenderer).setScrollShiftEnabled(scrollShiftEnabled);
+        }
+    }
+
+    public void setOverCaptureMargin(int overCaptureMargin) {
+        this.overCaptureMargin = overCaptureMargin;
+        if (blurRenderer instanceof BlurViewManager) {
+            ((BlurViewManager) blurRenderer).setOverCaptureMargin(overCaptureMargin);
+        }
+    }
+
+    public void setSupersampleFactor(int supersampleFactor) {
+        this.supersampleFactor = supersampleFactor;
+        if (blurRenderer instanceof BlurViewManager) {
+            ((BlurViewManager) blurRenderer).setSupersampleFactor(supersampleFactor);
+        }
+    }
+
+    public void setPauseWhenUnfocused(boolean pauseWhenUnfocused) {
+        this.pauseWhenUnfocused = pauseWhenUnfocused;
+        if (blurRenderer instanceof BlurViewManager) {
+            ((BlurViewManager) blurRenderer).setPauseWhenUnfocused(pauseWhenUnfocused);
+        }
+    }
+
+    /**
+     * Ikuti lifecycle {@code owner}: STOP menghentikan refresh, START melanjutkan dan DESTROY
+     * melepas semua buffer. {@code null} untuk kembali memakai owner dari ViewTreeLifecycleOwner.
+     * Observer hanya terpasang selama view menempel ke window.
+     */
+    public void setLifecycleOwner(@Nullable LifecycleOwner owner) {
+        lifecycleOwner = owner;
+        if (isAttachedToWindow()) {
+            lifecycleObserver.bind(owner != null ? owner : ViewTreeLifecycleOwner.get(this));
+        }
+    }
+
+    /**
+     * Lepas cache blur semua view sesuai level {@link ComponentCallbacks2}, misalnya dari
+     * {@code onTrimMemory} Activity. Callback yang sama sudah dipasang otomatis ke Application.
+     */
+    public static void trimMemory(int level) {
+        BlurMemoryTrimmer.trimMemory(level);
+    }
+
+    /**
+     * Lepas semua buffer, pool dan hasil blur yang disimpan. Semuanya dibangun ulang saat
+     * refresh berikutnya.
+     */
+    public static void clearCaches() {
+        BlurMemoryTrimmer.trimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+    }
+
+    private void refreshCpuAlgorithm() {
+        if (blurRenderer instanceof BlurViewManager && Build.VERSION.SDK_INT < Build.VERSION_CODES.S) {
+            ((BlurViewManager) blurRenderer).setBlurAlgorithm(getBlurAlgorithm());
+        }
+    }
+
     public BlurRenderer getBlurRenderer() {
         return blurRenderer;
     }
@@ -28,25 +28,60 @@ import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.os.Build;
 import android.util.AttributeSet;
+import android.view.View;
 import android.view.ViewGroup;
 import android.widget.FrameLayout;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.ViewTreeLifecycleOwner;
 
 import com.nad.blurview.config.BlurConfig;
 import com.nad.blurview.utils.BlurAlgorithm;
 import com.nad.blurview.utils.BlurIndicatorManager;
+import com.nad.blurview.utils.BlurLifecycleObserver;
+import com.nad.blurview.utils.BlurMemoryTrimmer;
 import com.nad.blurview.utils.BlurOutlineProvider;
+import com.nad.blurview.utils.CpuBlurAlgorithms;
 import com.nad.blurview.utils.OutlineClipController;
 import com.nad.blurview.utils.RenderEffectCompatBlurAlgorithm;
 import com.nad.blurview.utils.SimpleOutlineClipController;
-import com.nad.blurview.utils.StackBlurAlgorithm;
+
+import java.util.Collections;
+import java.util.Set;
 
 public class NadBlurIndicator extends FrameLayout {
 
     public OutlineClipController outlineClipController;
     public int overlayColor;
+    private boolean largeRadiusEnabled;
+    private int cpuAlgorithm = BlurConfig.CPU_ALGORITHM_STACK;
+    private boolean regionCaptureEnabled = true;
+    private Set<View> excludedViews = Collections.emptySet();
+    private float maxRefreshRate;
+    private boolean dirtyTrackingEnabled = true;
+    private int supersampleFactor = 1;
+    private boolean pauseWhenUnfocused = true;
+    // Lifecycle host; tanpa owner eksplisit diambil dari ViewTreeLifecycleOwner saat attach
+    private final BlurLifecycleObserver lifecycleObserver = new BlurLifecycleObserver(new BlurLifecycleObserver.Callback() {
+        @Override
+        public void onHostStartedChanged(boolean started) {
+            hostStarted = started;
+            if (outlineClipController instanceof BlurIndicatorManager) {
+                ((BlurIndicatorManager) outlineClipController).setHostStarted(started);
+            }
+        }
+
+        @Override
+        public void onHostDestroyed() {
+            if (outlineClipController instanceof BlurIndicatorManager) {
+                ((BlurIndicatorManager) outlineClipController).releaseResources();
+            }
+        }
+    });
+    private @Nullable LifecycleOwner lifecycleOwner;
+    private boolean hostStarted = true;
 
     public NadBlurIndicator(@NonNull Context context) {
         super(context);
@@ -65,6 +100,7 @@ public class NadBlurIndicator extends FrameLayout {
 
     private void init(Context context, AttributeSet attrs) {
         this.outlineClipController = new SimpleOutlineClipController();
+        BlurMemoryTrimmer.install(context);
 
         if (attrs != null) {
             try (TypedArray a = context.getTheme().obtainStyledAttributes(
@@ -81,7 +117,7 @@ public class NadBlurIndicator extends FrameLayout {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
             return new RenderEffectCompatBlurAlgorithm();
         } else {
-            return new StackBlurAlgorithm();
+            return CpuBlurAlgorithms.create(cpuAlgorithm, largeRadiusEnabled);
         }
     }
 
@@ -94,10 +130,29 @@ public class NadBlurIndicator extends FrameLayout {
         this.outlineClipController.setOutlineColor(color);
     }
 
+    /**
+     * Ikuti lifecycle {@code owner}: STOP menghentikan refresh, START melanjutkan dan DESTROY
+     * melepas semua buffer. {@code null} untuk kembali memakai owner dari ViewTreeLifecycleOwner.
+     * Observer hanya terpasang selama view menempel ke window.
+     */
+    public void setLifecycleOwner(@Nullable LifecycleOwner owner) {
+        lifecycleOwner = owner;
+        if (isAttachedToWindow()) {
+            lifecycleObserver.bind(owner != null ? owner : ViewTreeLifecycleOwner.get(this));
+        }
+    }
+
     private BlurIndicatorManager configureInternal(ViewGroup rootView, ViewGroup blurTarget, Boolean clipToOutline, Float blurRadius) {
         float radius = Math.max(blurRadius != null ? blurRadius : 20.0f, 2.0f);
         this.outlineClipController.destroy();
         BlurIndicatorManager manager = new BlurIndicatorManager(this, blurTarget, this.overlayColor, getBlurAlgorithm());
+        manager.setRegionCaptureEnabled(regionCaptureEnabled);
+        manager.setExcludedViews(excludedViews);
+        manager.setMaxRefreshRate(maxRefreshRate);
+        manager.setDirtyTrackingEnabled(dirtyTrackingEnabled);
+        manager.setSupersampleFactor(supersampleFactor);
+        manager.setPauseWhenUnfocused(pauseWhenUnfocused);
+        manager.setHostStarted(hostStarted);
         this.outlineClipController = manager;
         manager.setBlurRadius(radius);
 
@@ -112,6 +167,17 @@ public class NadBlurIndicator extends FrameLayout {
         if (config.overlayColor != null) {
             setOverlayColor(config.overlayColor);
         }
+        this.largeRadiusEnabled = Boolean.TRUE.equals(config.largeRadiusEnabled);
+        this.cpuAlgorithm = config.cpuAlgorithm;
+        this.regionCaptureEnabled = !Boolean.FALSE.equals(config.regionCaptureEnabled);
+        this.excludedViews = config.excludedViews;
+        this.maxRefreshRate = config.maxRefreshRate != null ? config.maxRefreshRate : 0f;
+        this.dirtyTrackingEnabled = !Boolean.FALSE.equals(config.dirtyTrackingEnabled);
+        this.supersampleFactor = config.supersampleFactor;
+        this.pauseWhenUnfocused = !Boolean.FALSE.equals(config.pauseWhenUnfocused);
+        if (config.lifecycleOwner != null) {
+            setLifecycleOwner(config.lifecycleOwner);
+        }
 
         BlurIndicatorManager manager = configureInternal(
                 config.blurRoot,
@@ -133,6 +199,7 @@ public class NadBlurIndicator extends FrameLayout {
     @Override
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
+        lifecycleObserver.bind(lifecycleOwner != null ? lifecycleOwner : ViewTreeLifecycleOwner.get(this));
         if (isHardwareAccelerated()) {
             this.outlineClipController.enableAutoUpdate(true);
         }
@@ -142,6 +209,8 @@ public class NadBlurIndicator extends FrameLayout {
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
         this.outlineClipController.enableAutoUpdate(false);
+        // Lifecycle host menyimpan observer; lepas agar view yang dibuang tidak tertahan
+        lifecycleObserver.unbind();
     }
 
     @Override
@@ -30,6 +30,7 @@ import android.widget.FrameLayout;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.lifecycle.LifecycleOwner;
 
 import com.nad.blurview.config.BlurConfig;
 import com.nad.blurview.utils.BlurRenderer;
@@ -145,6 +146,28 @@ public class NadBlurView extends FrameLayout {
         }
     }
 
+    /**
+     * Laju refresh blur maksimum dalam Hz; {@code 0} berarti setiap frame.
+     */
+    public void setMaxRefreshRate(float refreshRate) {
+        if (cpnBlur != null) {
+            cpnBlur.setMaxRefreshRate(refreshRate);
+        } else {
+            throw new IllegalStateException("CpnBlur is not initialized");
+        }
+    }
+
+    /**
+     * Lifecycle yang diikuti blur; tanpa ini owner diambil dari ViewTreeLifecycleOwner.
+     */
+    public void setLifecycleOwner(@Nullable LifecycleOwner owner) {
+        if (cpnBlur != null) {
+            cpnBlur.setLifecycleOwner(owner);
+        } else {
+            throw new IllegalStateException("CpnBlur is not initialized");
+        }
+    }
+
     public void setOverlayColor(int color) {
         if (cpnBlur != null) {
             cpnBlur.setOverlayColorInternal(color);
@@ -161,6 +184,19 @@ public class NadBlurView extends FrameLayout {
         if (config.overlayColor != null) {
             setOverlayColor(config.overlayColor);
         }
+        cpnBlur.setLargeRadiusEnabled(Boolean.TRUE.equals(config.largeRadiusEnabled));
+        cpnBlur.setCpuAlgorithm(config.cpuAlgorithm);
+        cpnBlur.setRegionCaptureEnabled(!Boolean.FALSE.equals(config.regionCaptureEnabled));
+        cpnBlur.setExcludedViews(config.excludedViews);
+        cpnBlur.setMaxRefreshRate(config.maxRefreshRate != null ? config.maxRefreshRate : 0f);
+        cpnBlur.setDirtyTrackingEnabled(!Boolean.FALSE.equals(config.dirtyTrackingEnabled));
+        cpnBlur.setScrollShiftEnabled(Boolean.TRUE.equals(config.scrollShiftEnabled));
+        cpnBlur.setOverCaptureMargin(config.overCaptureMargin);
+        cpnBlur.setSupersampleFactor(config.supersampleFactor);
+        cpnBlur.setPauseWhenUnfocused(!Boolean.FALSE.equals(config.pauseWhenUnfocused));
+        if (config.lifecycleOwner != null) {
+            cpnBlur.setLifecycleOwner(config.lifecycleOwner);
+        }
 
         configureBlur(
                 config.blurRoot,
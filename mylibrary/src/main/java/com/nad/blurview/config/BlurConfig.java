@@ -22,22 +22,53 @@
  */
 package com.nad.blurview.config;
 
+import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.ColorInt;
 import androidx.annotation.Nullable;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Konfigurasi untuk mengatur blur pada NadBlurView dan variannya.
  */
 public class BlurConfig {
 
+    /** Stack blur klasik (default). */
+    public static final int CPU_ALGORITHM_STACK = 0;
+    /** Stack blur dengan kanal terpaket, memori kerja lebih kecil. */
+    public static final int CPU_ALGORITHM_PACKED_STACK = 1;
+    /** Tiga box blur per sumbu, paling murah untuk perangkat kelas bawah. */
+    public static final int CPU_ALGORITHM_BOX = 2;
+    /**
+     * Gaussian rekursif (IIR), mendukung radius pecahan. Biaya tidak bergantung radius, tetapi
+     * sekitar 1,5-2,5x stack blur pada bitmap yang sama dan butuh buffer float seukuran bitmap.
+     */
+    public static final int CPU_ALGORITHM_GAUSSIAN_IIR = 3;
+    /** Dual filter Kawase (turun/naik resolusi), paling murah untuk blur yang sangat lembut. */
+    public static final int CPU_ALGORITHM_DUAL_KAWASE = 4;
+
     public final ViewGroup blurRoot;
     public final ViewGroup blurTarget;
     public final Boolean clipToOutline;
     public final Float blurRadius;
     public final @Nullable Integer overlayColor;  // Bisa null
     public final Boolean fallbackEnabled;
+    public final Boolean largeRadiusEnabled;
+    public final int cpuAlgorithm;
+    public final Boolean regionCaptureEnabled;
+    public final Set<View> excludedViews;
+    public final @Nullable Float maxRefreshRate;
+    public final Boolean dirtyTrackingEnabled;
+    public final Boolean scrollShiftEnabled;
+    public final int overCaptureMargin;
+    public final int supersampleFactor;
+    public final Boolean pauseWhenUnfocused;
+    public final @Nullable LifecycleOwner lifecycleOwner;
 
     private BlurConfig(Builder builder) {
         this.blurRoot = builder.blurRoot;
@@ -46,6 +77,17 @@ public class BlurConfig {
         this.blurRadius = builder.blurRadius;
         this.overlayColor = builder.overlayColor;
         this.fallbackEnabled = builder.fallbackEnabled;
+        this.largeRadiusEnabled = builder.largeRadiusEnabled;
+        this.cpuAlgorithm = builder.cpuAlgorithm;
+        this.regionCaptureEnabled = builder.regionCaptureEnabled;
+        this.excludedViews = Collections.unmodifiableSet(new HashSet<>(builder.excludedViews));
+        this.maxRefreshRate = builder.maxRefreshRate;
+        this.dirtyTrackingEnabled = builder.dirtyTrackingEnabled;
+        this.scrollShiftEnabled = builder.scrollShiftEnabled;
+        this.overCaptureMargin = builder.overCaptureMargin;
+        this.supersampleFactor = builder.supersampleFactor;
+        this.pauseWhenUnfocused = builder.pauseWhenUnfocused;
+        this.lifecycleOwner = builder.lifecycleOwner;
     }
 
     public static class Builder {
@@ -58,6 +100,28 @@ public class BlurConfig {
 
         private Boolean fallbackEnabled = true;
 
+        private Boolean largeRadiusEnabled = false;
+
+        private int cpuAlgorithm = CPU_ALGORITHM_STACK;
+
+        private Boolean regionCaptureEnabled = true;
+
+        private final Set<View> excludedViews = new HashSet<>();
+
+        private @Nullable Float maxRefreshRate = null;
+
+        private Boolean dirtyTrackingEnabled = true;
+
+        private Boolean scrollShiftEnabled = false;
+
+        private int overCaptureMargin = 0;
+
+        private int supersampleFactor = 1;
+
+        private Boolean pauseWhenUnfocused = true;
+
+        private @Nullable LifecycleOwner lifecycleOwner = null;
+
         public Builder setBlurRoot(ViewGroup blurRoot) {
             this.blurRoot = blurRoot;
             return this;
@@ -88,6 +152,113 @@ public class BlurConfig {
             return this;
         }
 
+        /**
+         * Izinkan radius blur di atas 25 pada blur CPU dengan piramida downsample.
+         */
+        public Builder setLargeRadiusEnabled(Boolean largeRadiusEnabled) {
+            this.largeRadiusEnabled = largeRadiusEnabled;
+            return this;
+        }
+
+        /**
+         * Algoritma blur CPU yang dipakai bila RenderEffect tidak tersedia,
+         * salah satu {@code CPU_ALGORITHM_*}.
+         */
+        public Builder setCpuAlgorithm(int cpuAlgorithm) {
+            this.cpuAlgorithm = cpuAlgorithm;
+            return this;
+        }
+
+        /**
+         * Capture hanya area di belakang view dan lewati anak root yang tidak beririsan.
+         * Matikan bila hirarki memakai urutan gambar khusus yang tidak terdeteksi.
+         */
+        public Builder setRegionCaptureEnabled(Boolean regionCaptureEnabled) {
+            this.regionCaptureEnabled = regionCaptureEnabled;
+            return this;
+        }
+
+        /**
+         * Lewati {@code view} (dan anaknya) saat capture, misalnya blur view lain, video,
+         * animasi Lottie atau peta. Butuh region capture aktif.
+         */
+        public Builder addExcludedView(View view) {
+            if (view != null) {
+                this.excludedViews.add(view);
+            }
+            return this;
+        }
+
+        /**
+         * Batasi refresh blur, misalnya 30 Hz untuk latar belakang. {@code null} berarti setiap frame.
+         */
+        public Builder setMaxRefreshRate(@Nullable Float maxRefreshRate) {
+            this.maxRefreshRate = maxRefreshRate;
+            return this;
+        }
+
+        /**
+         * Refresh hanya saat isi di belakang view berubah. Matikan bila latar digambar tanpa
+         * invalidate di UI thread, misalnya animasi yang berjalan di RenderThread.
+         */
+        public Builder setDirtyTrackingEnabled(Boolean dirtyTrackingEnabled) {
+            this.dirtyTrackingEnabled = dirtyTrackingEnabled;
+            return this;
+        }
+
+        /**
+         * Saat isi di belakang view di-scroll, geser hasil blur lama dan blur hanya strip yang
+         * baru terlihat. Hanya untuk algoritma CPU stack, packed stack dan box; posisi bisa
+         * meleset kurang dari setengah piksel bitmap sampai capture penuh berikutnya.
+         * Hanya berlaku untuk NadBlurView; NadBlurIndicator mengabaikannya.
+         */
+        public Builder setScrollShiftEnabled(Boolean scrollShiftEnabled) {
+            this.scrollShiftEnabled = scrollShiftEnabled;
+            return this;
+        }
+
+        /**
+         * Capture dan blur area selebar {@code marginPx} di sekitar view. Selama view bergerak
+         * (translasi, bottom sheet, toolbar) di dalam margin dan isinya tetap, hasil lama cukup
+         * digambar di posisi lain tanpa capture ulang. 0 untuk mematikan. Hanya berlaku untuk
+         * NadBlurView; NadBlurIndicator mengabaikannya.
+         */
+        public Builder setOverCaptureMargin(int marginPx) {
+            this.overCaptureMargin = Math.max(0, marginPx);
+            return this;
+        }
+
+        /**
+         * Capture {@code factor} kali lebih tajam dari bitmap blur (yang berukuran 1/6 view), lalu
+         * downscale dengan box filter di dalam kernel stack blur tanpa bitmap perantara. Detail
+         * tipis seperti teks dan garis dirata-rata, bukan diambil sampel, tetapi biaya menggambar
+         * capture naik sekitar {@code factor^2}. Hanya untuk CPU_ALGORITHM_STACK; 1 (default)
+         * untuk mematikan, maksimal 6 (resolusi penuh).
+         */
+        public Builder setSupersampleFactor(int factor) {
+            this.supersampleFactor = Math.max(1, Math.min(6, factor));
+            return this;
+        }
+
+        /**
+         * Hentikan refresh setelah window kehilangan fokus, misalnya tertutup dialog. Window yang
+         * tidak pernah fokus atau FLAG_NOT_FOCUSABLE tetap di-refresh. Matikan untuk mode
+         * multi-window, di mana window tanpa fokus tetap terlihat.
+         */
+        public Builder setPauseWhenUnfocused(Boolean pauseWhenUnfocused) {
+            this.pauseWhenUnfocused = pauseWhenUnfocused;
+            return this;
+        }
+
+        /**
+         * Lifecycle yang diikuti blur: STOP menghentikan refresh, DESTROY melepas buffer.
+         * {@code null} berarti owner diambil dari ViewTreeLifecycleOwner saat view attach.
+         */
+        public Builder setLifecycleOwner(@Nullable LifecycleOwner lifecycleOwner) {
+            this.lifecycleOwner = lifecycleOwner;
+            return this;
+        }
+
         public BlurConfig build() {
             if (blurRoot == null || blurTarget == null) {
                 throw new IllegalArgumentException("blurRoot and blurTarget must not be null");
@@ -0,0 +1,163 @@
+/*
+ * MIT License
+ * Copyright (c) 2024 Muhamad Jaelani
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.nad.blurview.utils;
+
+import android.graphics.Bitmap;
+
+import java.util.ArrayList;
+
+/**
+ * Pool bitmap bersama untuk buffer capture dan blur. Bitmap baru dialokasikan sebesar kelas
+ * ukurannya (empat langkah per kelipatan dua) lalu di-{@link Bitmap#reconfigure} ke ukuran yang
+ * diminta, sehingga resize berulang (panel yang tingginya dianimasikan, keyboard) memakai ulang
+ * memori piksel yang sama alih-alih mengalokasikan bitmap baru tiap layout.
+ * <p>
+ * Bitmap bebas disimpan urut LRU; yang paling lama dilepas ke GC bila totalnya melebihi
+ * {@link #setMaxSize(long)}. Bitmap yang dilepas tidak di-{@link Bitmap#recycle()}, karena display
+ * list frame sebelumnya mungkin masih mereferensikannya.
+ */
+public final class BitmapPool {
+
+    public static final long DEFAULT_MAX_SIZE = 8L * 1024 * 1024;
+
+    private static final int STEPS_PER_OCTAVE_SHIFT = 2;
+    // Bitmap bebas yang jauh lebih besar dari permintaan tidak dipakai agar tidak memboroskan memori
+    private static final int MAX_WASTE_FACTOR = 2;
+
+    private static final ArrayList<Bitmap> free = new ArrayList<>();
+    private static long freeBytes;
+    private static long maxSize = DEFAULT_MAX_SIZE;
+
+    private BitmapPool() {
+    }
+
+    /**
+     * Bitmap mutable berukuran {@code width x height}. Isinya tidak dijamin kosong.
+     */
+    public static Bitmap acquire(int width, int height, Bitmap.Config config) {
+        long needed = (long) width * height * bytesPerPixel(config);
+        Bitmap bitmap = take(needed);
+        if (bitmap != null) {
+            try {
+                bitmap.reconfigure(width, height, config);
+                return bitmap;
+            } catch (IllegalArgumentException e) {
+                // Kapasitas tidak cukup untuk config ini; alokasi baru di bawah
+            }
+        }
+        return allocate(width, height, config, needed);
+    }
+
+    /**
+     * Kembalikan bitmap ke pool. {@code null}, bitmap immutable atau yang sudah di-recycle diabaikan.
+     */
+    public static void release(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()) return;
+        synchronized (BitmapPool.class) {
+            if (free.contains(bitmap)) return;
+            long size = bitmap.getAllocationByteCount();
+            if (size > maxSize) return;
+            free.add(bitmap);
+            freeBytes += size;
+            trimToSize(maxSize);
+        }
+    }
+
+    /**
+     * Batas total memori bitmap bebas di pool, dalam byte.
+     */
+    public static synchronized void setMaxSize(long bytes) {
+        maxSize = Math.max(0L, bytes);
+        trimToSize(maxSize);
+    }
+
+    /**
+     * Lepas bitmap bebas paling lama sampai totalnya tidak melebihi {@code bytes}.
+     */
+    public static synchronized void trimToSize(long bytes) {
+        while (freeBytes > bytes && !free.isEmpty()) {
+            freeBytes -= free.remove(0).getAllocationByteCount();
+        }
+        if (free.isEmpty()) {
+            freeBytes = 0;
+        }
+    }
+
+    public static synchronized void clear() {
+        trimToSize(0L);
+    }
+
+    /**
+     * Total memori bitmap bebas di pool, dalam byte.
+     */
+    public static synchronized long getSize() {
+        return freeBytes;
+    }
+
+    /**
+     * Bitmap bebas terkecil yang cukup untuk {@code needed} byte.
+     */
+    private static synchronized Bitmap take(long needed) {
+        int best = -1;
+        long bestSize = Long.MAX_VALUE;
+        for (int i = free.size() - 1; i >= 0; i--) {
+            long size = free.get(i).getAllocationByteCount();
+            if (size >= needed && size <= needed * MAX_WASTE_FACTOR && size < bestSize) {
+                best = i;
+                bestSize = size;
+            }
+        }
+        if (best < 0) return null;
+        freeBytes -= bestSize;
+        return free.remove(best);
+    }
+
+    /**
+     * Alokasi selebar {@code width} dengan baris tambahan sampai kapasitas kelas ukurannya.
+     */
+    private static Bitmap allocate(int width, int height, Bitmap.Config config, long needed) {
+        long rowBytes = (long) width * bytesPerPixel(config);
+        long rows = (sizeClass(needed) + rowBytes - 1) / rowBytes;
+        Bitmap bitmap = Bitmap.createBitmap(width, (int) Math.min(Integer.MAX_VALUE, Math.max(height, rows)), config);
+        if (bitmap.getHeight() != height) {
+            bitmap.reconfigure(width, height, config);
+        }
+        return bitmap;
+    }
+
+    /**
+     * {@code bytes} dibulatkan ke atas ke kelas ukuran: 1, 1.25, 1.5 atau 1.75 kali pangkat dua.
+     */
+    static long sizeClass(long bytes) {
+        if (bytes <= 1L << STEPS_PER_OCTAVE_SHIFT) return Math.max(1L, bytes);
+        int shift = 63 - Long.numberOfLeadingZeros(bytes) - STEPS_PER_OCTAVE_SHIFT;
+        long step = 1L << shift;
+        return (bytes + step - 1) & -step;
+    }
+
+    private static int bytesPerPixel(Bitmap.Config config) {
+        if (config == Bitmap.Config.ALPHA_8) return 1;
+        if (config == Bitmap.Config.RGB_565) return 2;
+        return 4;
+    }
+}
@@ -32,4 +32,11 @@ public interface BlurAlgorithm {
     void drawBlurred(Canvas canvas, Bitmap bitmap);
     void clear();
     void destroy();
+
+    /**
+     * Lepas buffer kerja dan cache; dialokasikan ulang pada blur berikutnya. Tidak boleh
+     * dipanggil bersamaan dengan {@link #blur}.
+     */
+    default void releaseBuffers() {
+    }
 }
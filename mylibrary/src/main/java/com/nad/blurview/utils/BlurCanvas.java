@@ -6,6 +6,10 @@ import android.graphics.Canvas;
 import androidx.annotation.NonNull;
 
 public class BlurCanvas extends Canvas {
+    public BlurCanvas() {
+        super();
+    }
+
     public BlurCanvas(@NonNull Bitmap bitmap) {
         super(bitmap);
     }
@@ -0,0 +1,285 @@
+/*
+ * MIT License
+ * Copyright (c) 2024 Muhamad Jaelani
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.nad.blurview.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+
+import com.nad.blurview.R;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Capture bersama untuk semua blur view pada root yang sama. Satu pre-draw listener per root
+ * memanggil {@link Client#onCaptureFrame()} tiap client; bila ada lebih dari satu client, root
+ * hanya digambar sekali per frame ke satu buffer kecil yang mencakup gabungan area semua
+ * client, lalu tiap client menyalin potongannya sendiri lewat {@link #drawCapture(Client, Canvas)}.
+ * <p>
+ * Capture hanya dibagi antar client dengan pengaturan capture yang sama (region capture dan
+ * view yang dikecualikan); client lain menggambar root sendiri agar pengecualian satu client
+ * tidak ikut menghilangkan view dari blur client lain.
+ * <p>
+ * Capture dibuat malas: hanya saat client pertama benar-benar memintanya di frame itu.
+ * Sebelumnya semua client mendapat {@link Client#onFrameStart(boolean, boolean)} untuk memeriksa
+ * perubahan selagi flag dirty view belum terhapus oleh capture.
+ */
+public final class BlurCaptureCoordinator {
+
+    public interface Client {
+        /**
+         * Isi {@code out} dengan area yang perlu di-capture dalam koordinat root, dihitung dari
+         * posisi view saat ini. {@code false} bila tidak ada yang perlu di-capture.
+         */
+        boolean getCaptureRegion(Rect out);
+
+        /** Rasio ukuran view terhadap bitmap capture-nya, misalnya 6 untuk capture /6. */
+        float getCaptureScale();
+
+        /** Boleh memakai {@link RegionCaptureDrawer} untuk area view ini. */
+        boolean isRegionCaptureEnabled();
+
+        /** View yang dilewati saat capture. */
+        Set<View> getExcludedViews();
+
+        /**
+         * Dipanggil untuk semua client sebelum capture mana pun di frame ini.
+         * {@code layoutChanged}/{@code scrollChanged} bila ada layout atau scroll di root sejak
+         * frame sebelumnya.
+         */
+        void onFrameStart(boolean layoutChanged, boolean scrollChanged);
+
+        /** Dipanggil sekali per frame dari pre-draw listener bersama; client boleh melewatinya. */
+        void onCaptureFrame();
+    }
+
+    private final ViewGroup rootViewGroup;
+    private final BlurPreDrawListener preDrawListener = new BlurPreDrawListener(this, 2);
+    private final ViewTreeObserver.OnGlobalLayoutListener layoutListener = this::onLayoutChanged;
+    private final ViewTreeObserver.OnScrollChangedListener scrollListener = this::onScrollChanged;
+    private boolean layoutChanged;
+    private boolean scrollChanged;
+    private final ArrayList<Client> clients = new ArrayList<>();
+    private Client[] snapshot = new Client[0];
+
+    private final Paint capturePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Rect union = new Rect();
+    private final Rect clientRegion = new Rect();
+    private BlurCanvas captureCanvas;
+    private Bitmap captureBitmap;
+    private float captureScale;
+    private boolean regionCapture;
+    // Pengecualian milik capture bersama; sama untuk semua client yang ikut di frame ini
+    private final HashSet<View> excludedViews = new HashSet<>();
+    private final ArrayList<Client> sharing = new ArrayList<>();
+
+    private boolean frameActive;
+    private boolean frameCaptured;
+    private boolean captureValid;
+
+    private BlurCaptureCoordinator(ViewGroup rootViewGroup) {
+        this.rootViewGroup = rootViewGroup;
+    }
+
+    /**
+     * Coordinator milik {@code rootViewGroup}, disimpan sebagai tag root.
+     */
+    public static BlurCaptureCoordinator obtain(ViewGroup rootViewGroup) {
+        Object tag = rootViewGroup.getTag(R.id.nad_blur_capture_coordinator);
+        if (tag instanceof BlurCaptureCoordinator) {
+            return (BlurCaptureCoordinator) tag;
+        }
+        BlurCaptureCoordinator coordinator = new BlurCaptureCoordinator(rootViewGroup);
+        rootViewGroup.setTag(R.id.nad_blur_capture_coordinator, coordinator);
+        return coordinator;
+    }
+
+    public void register(Client client) {
+        if (clients.contains(client)) return;
+        clients.add(client);
+        snapshot = clients.toArray(new Client[0]);
+        if (clients.size() == 1) {
+            rootViewGroup.setTag(R.id.nad_blur_capture_coordinator, this);
+            ViewTreeObserver observer = rootViewGroup.getViewTreeObserver();
+            if (observer != null && observer.isAlive()) {
+                observer.removeOnPreDrawListener(preDrawListener);
+                observer.addOnPreDrawListener(preDrawListener);
+                observer.removeOnGlobalLayoutListener(layoutListener);
+                observer.addOnGlobalLayoutListener(layoutListener);
+                observer.removeOnScrollChangedListener(scrollListener);
+                observer.addOnScrollChangedListener(scrollListener);
+            }
+        }
+    }
+
+    public void unregister(Client client) {
+        if (!clients.remove(client)) return;
+        snapshot = clients.toArray(new Client[0]);
+        if (clients.isEmpty()) {
+            ViewTreeObserver observer = rootViewGroup.getViewTreeObserver();
+            if (observer != null && observer.isAlive()) {
+                observer.removeOnPreDrawListener(preDrawListener);
+                observer.removeOnGlobalLayoutListener(layoutListener);
+                observer.removeOnScrollChangedListener(scrollListener);
+            }
+            if (rootViewGroup.getTag(R.id.nad_blur_capture_coordinator) == this) {
+                rootViewGroup.setTag(R.id.nad_blur_capture_coordinator, null);
+            }
+            BitmapPool.release(captureBitmap);
+            captureBitmap = null;
+            captureCanvas = null;
+        }
+    }
+
+    /**
+     * Lepas bitmap capture bersama; dibuat ulang pada capture berikutnya.
+     */
+    public void releaseCapture() {
+        if (frameActive || captureBitmap == null) return;
+        BitmapPool.release(captureBitmap);
+        captureBitmap = null;
+        captureCanvas = null;
+    }
+
+    /**
+     * Satu frame: refresh semua client dengan capture bersama.
+     */
+    public void dispatchFrame() {
+        Client[] current = snapshot;
+        frameActive = current.length > 1;
+        frameCaptured = false;
+        boolean layout = layoutChanged;
+        boolean scroll = scrollChanged;
+        layoutChanged = false;
+        scrollChanged = false;
+        try {
+            for (Client client : current) {
+                client.onFrameStart(layout, scroll);
+            }
+            for (Client client : current) {
+                client.onCaptureFrame();
+            }
+        } finally {
+            frameActive = false;
+            captureValid = false;
+            sharing.clear();
+        }
+    }
+
+    private void onLayoutChanged() {
+        layoutChanged = true;
+    }
+
+    private void onScrollChanged() {
+        scrollChanged = true;
+    }
+
+    /**
+     * Gambar capture bersama ke {@code canvas}, yang matriksnya sudah memetakan koordinat
+     * root ke bitmap client. Mengembalikan {@code false} bila client harus menggambar root
+     * sendiri (hanya satu client, dipanggil di luar frame bersama, atau pengaturan capture
+     * client berbeda dari capture bersama frame ini).
+     */
+    public boolean drawCapture(Client client, Canvas canvas) {
+        if (!frameActive) return false;
+        if (!frameCaptured) {
+            frameCaptured = true;
+            captureValid = capture(client);
+        }
+        if (!captureValid || !sharing.contains(client)) return false;
+
+        canvas.save();
+        canvas.translate(union.left, union.top);
+        canvas.scale(captureScale, captureScale);
+        canvas.drawBitmap(captureBitmap, 0f, 0f, capturePaint);
+        canvas.restore();
+        return true;
+    }
+
+    private boolean capture(Client requester) {
+        if (!computeUnion(requester)) return false;
+
+        int width = (int) Math.ceil(union.width() / captureScale);
+        int height = (int) Math.ceil(union.height() / captureScale);
+        if (captureBitmap == null || captureBitmap.getWidth() != width || captureBitmap.getHeight() != height) {
+            // Ukuran gabungan berubah tiap frame saat view dianimasikan; memori dipakai ulang lewat pool
+            BitmapPool.release(captureBitmap);
+            captureBitmap = BitmapPool.acquire(width, height, Bitmap.Config.ARGB_8888);
+            if (captureCanvas == null) {
+                captureCanvas = new BlurCanvas();
+            }
+            captureCanvas.setBitmap(captureBitmap);
+        }
+
+        captureBitmap.eraseColor(0);
+        captureCanvas.save();
+        captureCanvas.scale(1f / captureScale, 1f / captureScale);
+        captureCanvas.translate(-union.left, -union.top);
+        if (regionCapture) {
+            RegionCaptureDrawer.draw(rootViewGroup, captureCanvas, union, excludedViews);
+        } else {
+            rootViewGroup.draw(captureCanvas);
+        }
+        captureCanvas.restore();
+        return true;
+    }
+
+    /**
+     * Gabungan area client yang pengaturan capture-nya sama dengan {@code requester}, dalam
+     * koordinat root dan dipotong ke batas root. Skala capture memakai yang paling tajam agar
+     * tidak ada client yang kehilangan detail. Capture tidak dibagi bila hanya requester yang cocok.
+     */
+    private boolean computeUnion(Client requester) {
+        union.setEmpty();
+        captureScale = Float.MAX_VALUE;
+        regionCapture = requester.isRegionCaptureEnabled();
+        excludedViews.clear();
+        if (regionCapture) {
+            excludedViews.addAll(requester.getExcludedViews());
+        }
+        sharing.clear();
+        for (Client client : snapshot) {
+            if (client != requester && !hasSameCapture(client)) continue;
+            float scale = client.getCaptureScale();
+            if (scale <= 0f || !client.getCaptureRegion(clientRegion) || clientRegion.isEmpty()) continue;
+
+            union.union(clientRegion);
+            captureScale = Math.min(captureScale, scale);
+            sharing.add(client);
+        }
+        return sharing.size() > 1 && sharing.contains(requester)
+                && union.intersect(0, 0, rootViewGroup.getWidth(), rootViewGroup.getHeight());
+    }
+
+    // Tanpa region capture root digambar utuh, jadi pengecualian tidak berpengaruh
+    private boolean hasSameCapture(Client client) {
+        if (client.isRegionCaptureEnabled() != regionCapture) return false;
+        return !regionCapture || excludedViews.equals(client.getExcludedViews());
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * MIT License
+ * Copyright (c) 2024 Muhamad Jaelani
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.nad.blurview.utils;
+
+import android.graphics.Rect;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Mendeteksi apakah isi di belakang blur view berubah sejak capture terakhir, agar frame yang
+ * hanya mengubah isi blur view itu sendiri (misalnya kursor teks berkedip) tidak memicu
+ * capture dan blur ulang.
+ * <p>
+ * Sinyal yang dipakai: posisi/ukuran view dalam root, layout/scroll dari
+ * {@link BlurCaptureCoordinator}, dan flag {@link View#isDirty()}. Framework menandai semua
+ * leluhur view yang di-invalidate sebagai dirty, jadi penelusuran hanya turun ke group yang
+ * dirty dan hanya anak yang beririsan dengan area view yang dihitung. Group dirty yang tidak
+ * punya anak dirty dianggap berubah sendiri (background, atau properti RenderNode anak seperti
+ * translation/alpha yang tidak menandai anak itu dirty). Untuk leluhur blur view flag-nya
+ * ambigu, sehingga properti anak-anaknya dibandingkan lewat hash.
+ * <p>
+ * Bila perubahan hanya berasal dari view daun yang dirty, gabungan batas view tersebut tersedia
+ * lewat {@link #getDirtyRect(Rect)} untuk refresh sebagian; sinyal lain berarti seluruh area.
+ * Perubahan di dalam container scroll ({@link #setShiftContainer(View)}) dicatat terpisah, agar
+ * scroll murni bisa ditangani dengan menggeser hasil lama.
+ * <p>
+ * {@link #update(Set)} harus dipanggil di pre-draw sebelum capture apa pun di frame itu,
+ * karena menggambar view ke capture menghapus flag dirty-nya. Hanya dipanggil dari UI thread.
+ */
+public final class BlurDirtyTracker {
+
+    private final View blurView;
+    private final ViewGroup rootViewGroup;
+
+    // blurView dan leluhurnya di bawah root; kosong bila blurView bukan keturunan root
+    private final ArrayList<View> blurPath = new ArrayList<>();
+    private final Rect region = new Rect();
+    private final Rect capturedRegion = new Rect();
+    private final int[] rootLocation = new int[2];
+    private final int[] viewLocation = new int[2];
+
+    private Set<View> excludedViews = Collections.emptySet();
+    private boolean enabled = true;
+    private boolean pending = true;
+    // Area capture lebih besar dari view sebanyak margin ini di tiap sisi
+    private int captureMargin;
+    // Area berubah dalam koordinat root sejak capture terakhir; full berarti seluruh area
+    private final Rect dirtyRect = new Rect();
+    private boolean dirtyRectFull = true;
+    private View shiftContainer;
+    private boolean containerChanged;
+    private int propertyHash;
+    private int lastPropertyHash;
+
+    public BlurDirtyTracker(View blurView, ViewGroup rootViewGroup) {
+        this.blurView = blurView;
+        this.rootViewGroup = rootViewGroup;
+    }
+
+    /**
+     * Bila dimatikan, setiap frame dianggap berubah seperti sebelumnya. Penelusuran tetap
+     * berjalan untuk {@link #hasDetectedChanges()}.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        markFull();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Capture mencakup {@code margin} piksel di sekitar view; view boleh bergerak di dalamnya
+     * tanpa dianggap berubah selama isi area capture tetap.
+     */
+    public void setCaptureMargin(int margin) {
+        if (captureMargin == margin) return;
+        captureMargin = margin;
+        markFull();
+    }
+
+    /**
+     * Anak-anak {@code container} tidak ditelusuri; bila container dirty hanya
+     * {@link #isOnlyContainerChanged()} yang menandainya. {@code null} untuk menonaktifkan.
+     */
+    public void setShiftContainer(View container) {
+        this.shiftContainer = container;
+    }
+
+    /**
+     * Satu-satunya perubahan sejak capture terakhir ada di dalam container scroll.
+     */
+    public boolean isOnlyContainerChanged() {
+        return enabled && pending && containerChanged && !dirtyRectFull && dirtyRect.isEmpty();
+    }
+
+    /**
+     * Paksa refresh berikutnya, misalnya setelah radius atau pengecualian berubah.
+     */
+    public void invalidate() {
+        markFull();
+    }
+
+    /**
+     * Periksa perubahan frame ini. Perubahan bersifat lengket sampai
+     * {@link #onRefreshed(Rect)}, jadi frame yang dilewati scheduler tidak kehilangannya.
+     */
+    public void update(Set<View> excludedViews) {
+        if (dirtyRectFull) return;
+
+        rootViewGroup.getLocationOnScreen(rootLocation);
+        blurView.getLocationOnScreen(viewLocation);
+        int dx = viewLocation[0] - rootLocation[0];
+        int dy = viewLocation[1] - rootLocation[1];
+        region.set(dx, dy, dx + blurView.getWidth(), dy + blurView.getHeight());
+        if (!capturedRegion.contains(region)
+                || capturedRegion.width() != region.width() + 2 * captureMargin
+                || capturedRegion.height() != region.height() + 2 * captureMargin) {
+            markFull();
+            return;
+        }
+
+        // Root tidak dirty: tidak ada yang di-invalidate di seluruh hirarki
+        if (!rootViewGroup.isDirty()) return;
+
+        this.excludedViews = excludedViews != null ? excludedViews : Collections.emptySet();
+        buildBlurPath();
+        propertyHash = 1;
+        if (!scan(rootViewGroup, 0f, 0f, true)) {
+            markFull();
+        }
+        if (propertyHash != lastPropertyHash) {
+            lastPropertyHash = propertyHash;
+            markFull();
+        }
+    }
+
+    /**
+     * Ada perubahan yang belum di-capture.
+     */
+    public boolean isPending() {
+        return !enabled || pending;
+    }
+
+    /**
+     * Ada perubahan terdeteksi sejak capture terakhir, juga saat tracker dimatikan. Perubahan
+     * tanpa invalidate di UI thread tidak terlihat di sini.
+     */
+    public boolean hasDetectedChanges() {
+        return pending;
+    }
+
+    /**
+     * Capture baru saja diambil untuk {@code region} (koordinat root).
+     */
+    public void onRefreshed(Rect region) {
+        capturedRegion.set(region);
+        pending = false;
+        dirtyRect.setEmpty();
+        dirtyRectFull = false;
+        containerChanged = false;
+    }
+
+    /**
+     * Area yang berubah (koordinat root) bila perubahan terbatas; {@code false} bila seluruh
+     * area harus di-capture ulang atau tidak ada perubahan.
+     */
+    public boolean getDirtyRect(Rect out) {
+        if (!enabled || !pending || dirtyRectFull || containerChanged || dirtyRect.isEmpty()) return false;
+        out.set(dirtyRect);
+        return true;
+    }
+
+    private void markFull() {
+        pending = true;
+        dirtyRectFull = true;
+    }
+
+    private void markDirty(float left, float top, float right, float bottom) {
+        pending = true;
+        dirtyRect.union((int) Math.floor(left), (int) Math.floor(top),
+                (int) Math.ceil(right), (int) Math.ceil(bottom));
+    }
+
+    private void buildBlurPath() {
+        blurPath.clear();
+        View view = blurView;
+        while (view != null && view != rootViewGroup) {
+            blurPath.add(view);
+            ViewParent parent = view.getParent();
+            view = parent instanceof View ? (View) parent : null;
+        }
+        if (view == null) {
+            blurPath.clear();
+        }
+    }
+
+    /**
+     * Telusuri anak {@code group} yang dirty. Mengembalikan {@code true} bila flag dirty
+     * {@code group} terjelaskan oleh anak yang dirty (di mana pun letaknya).
+     */
+    private boolean scan(ViewGroup group, float offsetX, float offsetY, boolean exact) {
+        boolean explained = false;
+        float baseX = offsetX - group.getScrollX();
+        float baseY = offsetY - group.getScrollY();
+        int count = group.getChildCount();
+        for (int i = 0; i < count && !dirtyRectFull; i++) {
+            View child = group.getChildAt(i);
+            if (child == null) continue;
+
+            boolean dirty = child.isDirty();
+            explained |= dirty;
+            // Isi blur view sendiri tidak ikut di-capture ulang
+            if (child == blurView) continue;
+
+            boolean onPath = blurPath.contains(child);
+            if (!onPath && (excludedViews.contains(child) || RegionCaptureDrawer.isExcluded(child))) continue;
+
+            float left = baseX + child.getLeft() + child.getTranslationX();
+            float top = baseY + child.getTop() + child.getTranslationY();
+            boolean childExact = exact && !isTransformed(child);
+            if (!onPath) {
+                if (childExact && !intersects(child, left, top)) continue;
+                // Scroll container sendiri diukur oleh ScrollShiftDetector
+                propertyHash = 31 * propertyHash + hashProperties(child, child != shiftContainer);
+            }
+            if (child == shiftContainer) {
+                if (dirty) {
+                    pending = true;
+                    containerChanged = true;
+                }
+                continue;
+            }
+            if (!dirty || child.getVisibility() != View.VISIBLE) continue;
+
+            if (child instanceof ViewGroup) {
+                if (!scan((ViewGroup) child, left, top, childExact)) {
+                    markFull();
+                }
+            } else if (!onPath) {
+                // Tanpa clipChildren view bisa menggambar di luar batasnya
+                if (childExact && group.getClipChildren()) {
+                    markDirty(left, top, left + child.getWidth(), top + child.getHeight());
+                } else {
+                    markFull();
+                }
+            }
+        }
+        return explained;
+    }
+
+    private boolean intersects(View child, float left, float top) {
+        return left < capturedRegion.right && top < capturedRegion.bottom
+                && left + child.getWidth() > capturedRegion.left && top + child.getHeight() > capturedRegion.top;
+    }
+
+    private static boolean isTransformed(View view) {
+        return view.getScaleX() != 1f || view.getScaleY() != 1f || view.getRotation() != 0f
+                || view.getRotationX() != 0f || view.getRotationY() != 0f;
+    }
+
+    private static int hashProperties(View view, boolean withScroll) {
+        int h = view.getLeft();
+        h = 31 * h + view.getTop();
+        h = 31 * h + view.getRight();
+        h = 31 * h + view.getBottom();
+        if (withScroll) {
+            h = 31 * h + view.getScrollX();
+            h = 31 * h + view.getScrollY();
+        }
+        h = 31 * h + view.getVisibility();
+        h = 31 * h + Float.floatToIntBits(view.getTranslationX());
+        h = 31 * h + Float.floatToIntBits(view.getTranslationY());
+        h = 31 * h + Float.floatToIntBits(view.getAlpha());
+        h = 31 * h + Float.floatToIntBits(view.getScaleX());
+        h = 31 * h + Float.floatToIntBits(view.getScaleY());
+        h = 31 * h + Float.floatToIntBits(view.getRotation());
+        return h;
+    }
+}
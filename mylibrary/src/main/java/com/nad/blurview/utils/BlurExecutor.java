@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ * Copyright (c) 2024 Muhamad Jaelani
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.nad.blurview.utils;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool worker bersama untuk blur CPU paralel. Jumlah thread dibatasi jumlah core
+ * dan thread idle dihentikan sendiri setelah beberapa detik.
+ * <p>
+ * Frame blur asinkron ({@link BlurPipeline}) berjalan di thread terpisah, bukan di pool
+ * stripe, agar frame yang menunggu stripe-nya sendiri tidak pernah saling mengunci.
+ */
+public final class BlurExecutor {
+
+    private static final int MAX_THREADS = 8;
+    private static final long KEEP_ALIVE_SECONDS = 10L;
+
+    private static volatile ThreadPoolExecutor executor;
+    private static volatile ThreadPoolExecutor frameExecutor;
+
+    private BlurExecutor() {
+    }
+
+    /**
+     * Paralelisme yang disarankan untuk perangkat ini, termasuk thread pemanggil.
+     */
+    public static int defaultParallelism() {
+        return Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), MAX_THREADS));
+    }
+
+    static void execute(Runnable task) {
+        getExecutor().execute(task);
+    }
+
+    static void executeFrame(Runnable task) {
+        getFrameExecutor().execute(task);
+    }
+
+    private static ThreadPoolExecutor getExecutor() {
+        ThreadPoolExecutor result = executor;
+        if (result == null) {
+            synchronized (BlurExecutor.class) {
+                result = executor;
+                if (result == null) {
+                    // Thread pemanggil selalu mengerjakan satu stripe sendiri
+                    int threads = Math.max(1, defaultParallelism() - 1);
+                    result = new ThreadPoolExecutor(threads, threads,
+                            KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>(), new WorkerFactory());
+                    result.allowCoreThreadTimeOut(true);
+                    executor = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static ThreadPoolExecutor getFrameExecutor() {
+        ThreadPoolExecutor result = frameExecutor;
+        if (result == null) {
+            synchronized (BlurExecutor.class) {
+                result = frameExecutor;
+                if (result == null) {
+                    result = new ThreadPoolExecutor(1, 1,
+                            KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>(), new WorkerFactory("NadBlur-frame-"));
+                    result.allowCoreThreadTimeOut(true);
+                    frameExecutor = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static final class WorkerFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+        private final String prefix;
+
+        WorkerFactory() {
+            this("NadBlur-worker-");
+        }
+
+        WorkerFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
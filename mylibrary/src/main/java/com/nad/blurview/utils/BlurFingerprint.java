@@ -0,0 +1,83 @@
+/*
+ * MIT License
+ * Copyright (c) 2024 Muhamad Jaelani
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.nad.blurview.utils;
+
+import android.graphics.Bitmap;
+
+/**
+ * Sidik jari murah dari hasil capture: hash FNV-1a atas grid sampel jarang. Dipakai untuk
+ * melewati blur bila capture baru identik dengan capture sebelumnya.
+ * <p>
+ * Jarak grid sebaiknya tidak lebih besar dari radius blur: perubahan yang lebih kecil dari satu
+ * sel grid bisa tidak terdeteksi, tapi setelah di-blur kontribusinya juga kecil.
+ * Hanya dipanggil dari UI thread.
+ */
+public final class BlurFingerprint {
+
+    /** Tidak pernah dikembalikan oleh {@link #compute(Bitmap, int)}. */
+    public static final long NONE = 0L;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static int[] row = new int[0];
+
+    private BlurFingerprint() {
+    }
+
+    /**
+     * Lepas buffer baris; dialokasikan ulang pada {@link #compute} berikutnya.
+     */
+    public static void releaseBuffers() {
+        row = new int[0];
+    }
+
+    /**
+     * Hash piksel pada setiap {@code step} baris dan kolom, dimulai dari tengah sel pertama.
+     */
+    public static long compute(Bitmap bitmap, int step) {
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        step = Math.max(1, step);
+        if (row.length < width) {
+            row = new int[width];
+        }
+
+        long hash = (FNV_OFFSET ^ width) * FNV_PRIME;
+        hash = (hash ^ height) * FNV_PRIME;
+        for (int y = step / 2; y < height; y += step) {
+            bitmap.getPixels(row, 0, width, 0, y, width, 1);
+            for (int x = step / 2; x < width; x += step) {
+                hash = (hash ^ row[x]) * FNV_PRIME;
+            }
+        }
+        return hash == NONE ? 1L : hash;
+    }
+
+    /**
+     * Jarak grid untuk radius blur dalam piksel bitmap capture.
+     */
+    public static int stepForRadius(float radius) {
+        return Math.max(1, (int) (radius / 4f));
+    }
+}
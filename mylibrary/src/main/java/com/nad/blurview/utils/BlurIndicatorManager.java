@@ -22,14 +22,20 @@
  */
 package com.nad.blurview.utils;
 
+import android.content.ComponentCallbacks2;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.view.View;
 import android.view.ViewGroup;
-import android.view.ViewTreeObserver;
 
 import com.nad.blurview.NadBlurIndicator;
 
-public class BlurIndicatorManager implements OutlineClipController {
+import java.util.Collections;
+import java.util.Set;
+
+public class BlurIndicatorManager implements OutlineClipController, BlurCaptureCoordinator.Client,
+        BlurMemoryTrimmer.Client {
     private final ViewGroup rootViewGroup;
     private final NadBlurIndicator blurView;
     private final BlurAlgorithm blurAlgorithm;
@@ -42,18 +48,43 @@ public class BlurIndicatorManager implements OutlineClipController {
 
     private BlurCanvas blurCanvas;
     private Bitmap blurBitmap;
-
-    private final ViewTreeObserver.OnPreDrawListener preDrawListener;
+    private int bitmapWidth, bitmapHeight;
+    // Capture diambil supersampleFactor kali lebih tajam bila algoritmanya bisa men-downscale sendiri
+    private int supersampleFactor = 1;
+    private int captureFactor = 1;
+    // Area view dalam koordinat root, untuk capture terbatas region
+    private final Rect captureRegion = new Rect();
+    private boolean regionCaptureEnabled = true;
+    private Set<View> excludedViews = Collections.emptySet();
+
+    // Algoritma CPU di-blur di thread latar; RenderEffect tetap sinkron di UI thread
+    private final BlurPipeline pipeline = new BlurPipeline(this::onBlurReady);
+    private boolean skipNextRefresh;
+    private final BlurRefreshScheduler refreshScheduler;
+    // Refresh hanya bila isi di belakang view berubah
+    private final BlurDirtyTracker dirtyTracker;
+    // Capture dan blur berhenti selama view tidak terlihat
+    private final VisibleFrameTracker visibility;
+
+    // Pre-draw dan capture root dibagi dengan blur view lain pada root yang sama
+    private BlurCaptureCoordinator captureCoordinator;
 
     private boolean blurEnabled = true;
     private boolean blurReady = false;
+
+    // Auto update yang diminta; baru aktif selama host lifecycle berjalan
+    private boolean autoUpdateRequested;
+    private boolean hostStarted = true;
     public BlurIndicatorManager(NadBlurIndicator blurView, ViewGroup rootViewGroup, int overlayColor, BlurAlgorithm blurAlgorithm) {
         this.blurView = blurView;
         this.rootViewGroup = rootViewGroup;
         this.overlayColor = overlayColor;
         this.blurAlgorithm = blurAlgorithm;
-
-        this.preDrawListener = new BlurRefreshPreDrawListener(this,0);
+        this.refreshScheduler = new BlurRefreshScheduler(blurView);
+        this.dirtyTracker = new BlurDirtyTracker(blurView, rootViewGroup);
+        this.visibility = new VisibleFrameTracker(blurView);
+        visibility.setListener(this::onVisibilityChanged);
+        BlurMemoryTrimmer.register(this);
 
         if (blurAlgorithm instanceof RenderEffectBlurAlgorithm) {
             ((RenderEffectBlurAlgorithm) blurAlgorithm).setContext(blurView.getContext());
@@ -80,14 +111,45 @@ public class BlurIndicatorManager implements OutlineClipController {
 
     @Override
     public OutlineClipController enableAutoUpdate(boolean enabled) {
-        ViewTreeObserver observer = rootViewGroup.getViewTreeObserver();
-        observer.removeOnPreDrawListener(preDrawListener);
-        if (enabled) {
-            observer.addOnPreDrawListener(preDrawListener);
-        }
+        autoUpdateRequested = enabled;
+        updateRegistration();
         return this;
     }
 
+    /**
+     * Dipanggil saat host lifecycle START ({@code true}) atau STOP. Selama berhenti view lepas
+     * dari pre-draw bersama, jadi tidak ada capture maupun blur; auto update kembali saat START.
+     */
+    public void setHostStarted(boolean started) {
+        if (hostStarted == started) return;
+        hostStarted = started;
+        updateRegistration();
+        if (started) {
+            blurView.invalidate();
+        }
+    }
+
+    private void updateRegistration() {
+        if (autoUpdateRequested && hostStarted) {
+            BlurCaptureCoordinator coordinator = BlurCaptureCoordinator.obtain(rootViewGroup);
+            if (captureCoordinator != null && captureCoordinator != coordinator) {
+                captureCoordinator.unregister(this);
+            }
+            captureCoordinator = coordinator;
+            coordinator.register(this);
+            visibility.attachWindowFocusListener();
+            dirtyTracker.invalidate();
+        } else {
+            visibility.detachWindowFocusListener();
+            if (captureCoordinator != null) {
+                captureCoordinator.unregister(this);
+                captureCoordinator = null;
+            }
+            refreshScheduler.cancel();
+            pipeline.cancel();
+        }
+    }
+
     @Override
     public void prepare() {
         updateBitmapAndCanvas(blurView.getMeasuredWidth(), blurView.getMeasuredHeight());
@@ -96,21 +158,60 @@ public class BlurIndicatorManager implements OutlineClipController {
     @Override
     public void destroy() {
         enableAutoUpdate(false);
-        blurAlgorithm.destroy();
+        pipeline.retire(blurAlgorithm);
+        pipeline.release();
+        pipeline.releaseScratch(null);
+        BitmapPool.release(blurBitmap);
+        blurBitmap = null;
+        BlurMemoryTrimmer.unregister(this);
         blurReady = false;
     }
 
+    /**
+     * Lepas semua bitmap dan buffer kerja tanpa menghancurkan renderer, misalnya saat host
+     * DESTROY. Semuanya dibangun ulang lewat capture penuh pada refresh berikutnya.
+     */
+    public void releaseResources() {
+        onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+    }
+
+    /**
+     * Lepas buffer kerja ({@code RUNNING_LOW} ke atas) dan hasil blur ({@code UI_HIDDEN} ke
+     * atas). Hasil yang dibuang dibangun ulang lewat capture penuh saat view digambar lagi.
+     */
+    @Override
+    public void onTrimMemory(int level) {
+        boolean async = BlurPipeline.supports(blurAlgorithm);
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW && async) {
+            pipeline.releaseScratch(blurAlgorithm);
+        }
+        if (level < ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) return;
+
+        pipeline.releaseFrames();
+        BitmapPool.release(blurBitmap);
+        blurBitmap = null;
+        if (!async) {
+            blurAlgorithm.releaseBuffers();
+        }
+        if (captureCoordinator != null) {
+            captureCoordinator.releaseCapture();
+        }
+        dirtyTracker.invalidate();
+        blurView.invalidate();
+    }
+
     @Override
     public boolean draw(Canvas canvas) {
-        if (!blurEnabled || !blurReady || blurBitmap == null) return true;
+        Bitmap bitmap = BlurPipeline.supports(blurAlgorithm) ? pipeline.getFrontBitmap() : blurBitmap;
+        if (!blurEnabled || !blurReady || bitmap == null) return true;
         if (canvas instanceof BlurCanvas) return false;
 
-        float scaleY = (float) blurView.getHeight() / blurBitmap.getHeight();
-        float scaleX = (float) blurView.getWidth() / blurBitmap.getWidth();
+        float scaleY = (float) blurView.getHeight() / bitmap.getHeight();
+        float scaleX = (float) blurView.getWidth() / bitmap.getWidth();
 
         canvas.save();
         canvas.scale(scaleX, scaleY);
-        blurAlgorithm.drawBlurred(canvas, blurBitmap);
+        blurAlgorithm.drawBlurred(canvas, bitmap);
         canvas.restore();
 
         if (overlayColor != 0) {
@@ -134,39 +235,210 @@ public class BlurIndicatorManager implements OutlineClipController {
         int alignedWidth = scaledWidth + (64 - scaledWidth % 64) % 64;
         int scaledHeight = (int) Math.ceil(height / ((float) width / alignedWidth));
 
-        blurBitmap = Bitmap.createBitmap(alignedWidth, scaledHeight, blurAlgorithm.getConfig());
-        blurCanvas = new BlurCanvas(blurBitmap);
+        bitmapWidth = alignedWidth;
+        bitmapHeight = scaledHeight;
+        if (blurCanvas == null) {
+            blurCanvas = new BlurCanvas();
+        }
+        if (BlurPipeline.supports(blurAlgorithm)) {
+            BitmapPool.release(blurBitmap);
+            blurBitmap = null;
+            captureFactor = blurAlgorithm instanceof DownsampleBlurAlgorithm ? supersampleFactor : 1;
+            pipeline.resize(alignedWidth, scaledHeight, captureFactor, blurAlgorithm.getConfig());
+        } else {
+            captureFactor = 1;
+            pipeline.release();
+            if (blurBitmap == null || blurBitmap.getWidth() != alignedWidth || blurBitmap.getHeight() != scaledHeight
+                    || blurBitmap.getConfig() != blurAlgorithm.getConfig()) {
+                BitmapPool.release(blurBitmap);
+                blurBitmap = BitmapPool.acquire(alignedWidth, scaledHeight, blurAlgorithm.getConfig());
+            }
+            blurCanvas.setBitmap(blurBitmap);
+        }
         blurReady = true;
 
         refreshBlur();
     }
 
     public void refreshBlur() {
-        if (!blurEnabled || !blurReady || blurBitmap == null || blurCanvas == null) return;
+        if (!blurEnabled || !blurReady || blurCanvas == null) return;
+
+        boolean async = BlurPipeline.supports(blurAlgorithm);
+        Bitmap target;
+        if (async) {
+            target = pipeline.obtainBuffer();
+            if (target == null) return;
+            blurCanvas.setBitmap(target);
+        } else {
+            if (blurBitmap == null) {
+                // Dilepas oleh onTrimMemory
+                blurBitmap = BitmapPool.acquire(bitmapWidth, bitmapHeight, blurAlgorithm.getConfig());
+                blurCanvas.setBitmap(blurBitmap);
+            }
+            target = blurBitmap;
+        }
 
-        blurBitmap.eraseColor(0);
+        target.eraseColor(0);
         blurCanvas.save();
 
+        getCaptureRegion(captureRegion);
+        int dx = captureRegion.left;
+        int dy = captureRegion.top;
+
+        float scaleY = (float) blurView.getHeight() / (bitmapHeight * captureFactor);
+        float scaleX = (float) blurView.getWidth() / (bitmapWidth * captureFactor);
+
+        blurCanvas.translate(-dx / scaleX, -dy / scaleY);
+        blurCanvas.scale(1f / scaleX, 1f / scaleY);
+        if (captureCoordinator == null || !captureCoordinator.drawCapture(this, blurCanvas)) {
+            if (regionCaptureEnabled) {
+                RegionCaptureDrawer.draw(rootViewGroup, blurCanvas, captureRegion, excludedViews);
+            } else {
+                rootViewGroup.draw(blurCanvas);
+            }
+        }
+
+        blurCanvas.restore();
+        dirtyTracker.onRefreshed(captureRegion);
+
+        if (async) {
+            // Capture identik dengan frame terakhir: hasil blur yang ada (atau sedang dibuat) dipakai
+            long fingerprint = BlurFingerprint.compute(target, BlurFingerprint.stepForRadius(blurRadius * captureFactor));
+            if (pipeline.isLatest(fingerprint, blurAlgorithm, blurRadius)) {
+                pipeline.recycle(target);
+                return;
+            }
+            pipeline.submit(target, blurAlgorithm, blurRadius, fingerprint, null);
+            return;
+        }
+        blurBitmap = blurAlgorithm.blur(blurBitmap, blurRadius);
+        blurAlgorithm.prepare();
+    }
+
+    public void setRegionCaptureEnabled(boolean enabled) {
+        this.regionCaptureEnabled = enabled;
+        dirtyTracker.invalidate();
+    }
+
+    @Override
+    public boolean isRegionCaptureEnabled() {
+        return regionCaptureEnabled;
+    }
+
+    /**
+     * View yang dilewati saat capture, selain yang ditandai dengan
+     * {@link RegionCaptureDrawer#setExcluded(View, boolean)}.
+     */
+    public void setExcludedViews(Set<View> excludedViews) {
+        this.excludedViews = excludedViews != null ? excludedViews : Collections.emptySet();
+        dirtyTracker.invalidate();
+    }
+
+    @Override
+    public Set<View> getExcludedViews() {
+        return excludedViews;
+    }
+
+    @Override
+    public boolean getCaptureRegion(Rect out) {
         rootViewGroup.getLocationOnScreen(rootLocation);
         blurView.getLocationOnScreen(viewLocation);
 
         int dx = viewLocation[0] - rootLocation[0];
         int dy = viewLocation[1] - rootLocation[1];
+        out.set(dx, dy, dx + blurView.getWidth(), dy + blurView.getHeight());
+        return blurView.getWidth() > 0 && blurView.getHeight() > 0;
+    }
 
-        float scaleY = (float) blurView.getHeight() / blurBitmap.getHeight();
-        float scaleX = (float) blurView.getWidth() / blurBitmap.getWidth();
+    @Override
+    public float getCaptureScale() {
+        // View yang tidak terlihat tidak ikut memperbesar capture bersama
+        return blurReady && bitmapWidth > 0 && visibility.isVisible() ? (float) blurView.getWidth() / (bitmapWidth * captureFactor) : 0f;
+    }
 
-        blurCanvas.translate(-dx / scaleX, -dy / scaleY);
-        blurCanvas.scale(1f / scaleX, 1f / scaleY);
-        rootViewGroup.draw(blurCanvas);
+    private void onVisibilityChanged(boolean visible) {
+        if (visible) {
+            // Perubahan selama tersembunyi tidak terlacak; mulai lagi dengan capture penuh
+            dirtyTracker.invalidate();
+        } else {
+            refreshScheduler.cancel();
+            pipeline.cancel();
+        }
+    }
 
-        blurCanvas.restore();
+    private void onBlurReady() {
+        skipNextRefresh = true;
+        blurView.invalidate();
+    }
 
-        blurBitmap = blurAlgorithm.blur(blurBitmap, blurRadius);
-        blurAlgorithm.prepare();
+    @Override
+    public void onFrameStart(boolean layoutChanged, boolean scrollChanged) {
+        visibility.update();
+        if (layoutChanged || scrollChanged) {
+            dirtyTracker.invalidate();
+        }
+        dirtyTracker.update(excludedViews);
+    }
+
+    @Override
+    public void onCaptureFrame() {
+        if (!visibility.isVisible()) return;
+        if (dirtyTracker.isEnabled()) {
+            // Invalidate dari onBlurReady hanya mengotori blur view sendiri, tidak terhitung
+            skipNextRefresh = false;
+            if (!dirtyTracker.isPending()) return;
+        } else if (skipNextRefresh) {
+            // Frame ini dipicu oleh onBlurReady sendiri; capture ulang hanya mengulang blur yang sama,
+            // kecuali ada view lain yang juga di-invalidate di frame yang sama
+            skipNextRefresh = false;
+            if (!dirtyTracker.hasDetectedChanges()) return;
+        }
+        // Frame yang dilewati scheduler tetap menggambar hasil blur sebelumnya
+        if (refreshScheduler.shouldRefresh()) {
+            refreshBlur();
+        }
+    }
+
+    /**
+     * Laju refresh maksimum dalam Hz; {@code 0} berarti setiap frame.
+     */
+    public void setMaxRefreshRate(float refreshRate) {
+        refreshScheduler.setMaxRefreshRate(refreshRate);
+    }
+
+    /**
+     * Refresh hanya saat isi di belakang view berubah; {@code false} untuk refresh setiap frame.
+     */
+    public void setDirtyTrackingEnabled(boolean enabled) {
+        dirtyTracker.setEnabled(enabled);
+    }
+
+    /**
+     * Capture {@code factor} kali lebih tajam dari bitmap blur lalu downscale box filter di dalam
+     * kernel. Hanya untuk {@link DownsampleBlurAlgorithm}; algoritma lain tetap capture langsung.
+     */
+    /**
+     * Hentikan refresh selama window tidak fokus (misalnya tertutup dialog). Matikan untuk
+     * mode multi-window, di mana window tanpa fokus tetap terlihat.
+     */
+    public void setPauseWhenUnfocused(boolean pause) {
+        visibility.setPauseWhenUnfocused(pause);
+        visibility.update();
+    }
+
+    public void setSupersampleFactor(int factor) {
+        factor = Math.max(1, factor);
+        if (supersampleFactor == factor) return;
+        supersampleFactor = factor;
+        if (blurReady) {
+            prepare();
+        }
     }
 
     public void setBlurRadius(float radius) {
+        if (this.blurRadius != radius) {
+            dirtyTracker.invalidate();
+        }
         this.blurRadius = radius;
     }
 }
@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ * Copyright (c) 2024 Muhamad Jaelani
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.nad.blurview.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+/**
+ * Meneruskan START/STOP/DESTROY dari {@link LifecycleOwner} host ke blur view. Activity di back
+ * stack tetap menempel ke window, jadi tanpa ini pre-draw dan blur tetap berjalan di belakang layar.
+ */
+public final class BlurLifecycleObserver implements DefaultLifecycleObserver {
+
+    public interface Callback {
+        /** {@code true} saat host START, {@code false} saat STOP. */
+        void onHostStartedChanged(boolean started);
+
+        /**
+         * Host DESTROY; lepas bitmap, RenderNode dan buffer kerja. Renderer tetap dipakai dan
+         * dibangun ulang bila view menempel lagi ke host lain.
+         */
+        void onHostDestroyed();
+    }
+
+    private final Callback callback;
+    private Lifecycle lifecycle;
+    private boolean started = true;
+
+    public BlurLifecycleObserver(@NonNull Callback callback) {
+        this.callback = callback;
+    }
+
+    /**
+     * Ikuti lifecycle {@code owner}, menggantikan owner sebelumnya. {@code null} berarti blur
+     * selalu berjalan.
+     */
+    public void bind(@Nullable LifecycleOwner owner) {
+        Lifecycle next = owner != null ? owner.getLifecycle() : null;
+        if (next == lifecycle) return;
+        if (lifecycle != null) {
+            lifecycle.removeObserver(this);
+        }
+        lifecycle = next;
+        if (next == null) {
+            setStarted(true);
+            return;
+        }
+        // addObserver hanya mengirim event sampai state saat ini, STOP tidak pernah terkirim
+        next.addObserver(this);
+        setStarted(next.getCurrentState().isAtLeast(Lifecycle.State.STARTED));
+    }
+
+    public void unbind() {
+        bind(null);
+    }
+
+    public boolean isBound() {
+        return lifecycle != null;
+    }
+
+    @Override
+    public void onStart(@NonNull LifecycleOwner owner) {
+        setStarted(true);
+    }
+
+    @Override
+    public void onStop(@NonNull LifecycleOwner owner) {
+        setStarted(false);
+    }
+
+    @Override
+    public void onDestroy(@NonNull LifecycleOwner owner) {
+        if (lifecycle != null) {
+            lifecycle.removeObserver(this);
+            lifecycle = null;
+        }
+        // Tetap berhenti sampai view di-bind lagi ke host baru (atau tanpa owner)
+        setStarted(false);
+        callback.onHostDestroyed();
+    }
+
+    private void setStarted(boolean started) {
+        if (this.started == started) return;
+        this.started = started;
+        callback.onHostStartedChanged(started);
+    }
+}
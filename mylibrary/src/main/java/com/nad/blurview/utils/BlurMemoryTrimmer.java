@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ * Copyright (c) 2024 Muhamad Jaelani
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.nad.blurview.utils;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Melepas memori blur saat sistem kekurangan memori, sesuai level
+ * {@link ComponentCallbacks2#onTrimMemory(int)}:
+ * <ul>
+ *     <li>{@code RUNNING_MODERATE} ke atas: bitmap bebas di {@link BitmapPool}.</li>
+ *     <li>{@code RUNNING_LOW} ke atas: buffer kerja kernel, worker dan {@link BlurUtils}.</li>
+ *     <li>{@code UI_HIDDEN} ke atas: hasil blur dan capture yang disimpan tiap view.</li>
+ * </ul>
+ * Semuanya dibangun ulang saat refresh berikutnya. Dipasang sekali per proses lewat
+ * {@link #install(Context)}; view mendaftarkan renderer-nya dengan {@link #register(Client)}.
+ * Hanya dipanggil dari UI thread.
+ */
+public final class BlurMemoryTrimmer implements ComponentCallbacks2 {
+
+    public interface Client {
+        /** Lepas memori milik renderer ini sesuai {@code level}. */
+        void onTrimMemory(int level);
+    }
+
+    private static final BlurMemoryTrimmer INSTANCE = new BlurMemoryTrimmer();
+    private static final Set<Client> clients = Collections.newSetFromMap(new WeakHashMap<>());
+    private static boolean installed;
+
+    private BlurMemoryTrimmer() {
+    }
+
+    /**
+     * Daftarkan callback ke application context. Pemanggilan berikutnya diabaikan.
+     */
+    public static void install(Context context) {
+        if (installed || context == null) return;
+        Context app = context.getApplicationContext();
+        (app != null ? app : context).registerComponentCallbacks(INSTANCE);
+        installed = true;
+    }
+
+    /**
+     * Renderer disimpan sebagai referensi lemah; tidak perlu dilepas secara eksplisit.
+     */
+    public static void register(Client client) {
+        clients.add(client);
+    }
+
+    public static void unregister(Client client) {
+        clients.remove(client);
+    }
+
+    /**
+     * Lepas memori sesuai {@code level} dari {@link ComponentCallbacks2}.
+     */
+    public static void trimMemory(int level) {
+        if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            BlurUtils.releaseBuffers();
+            BlurFingerprint.releaseBuffers();
+        }
+        for (Client client : new ArrayList<>(clients)) {
+            try {
+                client.onTrimMemory(level);
+            } catch (Throwable t) {
+                t.printStackTrace();
+            }
+        }
+        // Terakhir, agar buffer yang baru dilepas renderer ikut dibuang
+        if (level >= TRIM_MEMORY_RUNNING_MODERATE) {
+            BitmapPool.clear();
+        }
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        trimMemory(level);
+    }
+
+    @Override
+    public void onLowMemory() {
+        trimMemory(TRIM_MEMORY_COMPLETE);
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+    }
+}
@@ -0,0 +1,544 @@
+/*
+ * MIT License
+ * Copyright (c) 2024 Muhamad Jaelani
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.nad.blurview.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+
+/**
+ * Pipeline blur asinkron: capture dilakukan di UI thread, blur di thread latar
+ * ({@link BlurExecutor}), lalu hasilnya ditukar ke front buffer di UI thread.
+ * <p>
+ * Paling banyak tiga bitmap dipakai: front (sedang ditampilkan), in-flight (sedang di-blur)
+ * dan pending (capture berikutnya). Bila worker masih sibuk, capture pending diganti dengan
+ * capture terbaru (latest-frame-wins). Semua state hanya disentuh dari UI thread, kecuali
+ * {@link #generation} yang dipakai worker untuk membatalkan pekerjaan.
+ * <p>
+ * Tiap frame membawa {@link BlurFingerprint} capture-nya; capture yang identik dengan frame
+ * terbaru (pending, in-flight atau front) tidak perlu di-blur lagi, lihat {@link #isLatest}.
+ * Bila hanya sebagian kecil capture berubah, frame bisa berupa tambalan atas front
+ * ({@link #submitPatch}) yang hanya mem-blur satu band, dengan front yang boleh digeser lebih
+ * dulu (scroll).
+ * <p>
+ * Saat ukuran berubah, front dan frame in-flight berukuran lama tetap dipakai (digambar dengan
+ * skala) sampai frame berukuran baru menggantikannya; buffer lama baru kembali ke
+ * {@link BitmapPool} saat ditukar keluar.
+ * <p>
+ * Dengan capture factor &gt; 1, buffer capture {@code factor} kali lebih besar dari hasil dan
+ * worker men-downscale-nya di dalam kernel ({@link DownsampleBlurAlgorithm}) ke buffer hasil
+ * terpisah; front selalu berukuran hasil.
+ */
+public final class BlurPipeline {
+
+    public interface Listener {
+        /** Dipanggil di UI thread saat front buffer baru siap digambar. */
+        void onBlurReady();
+    }
+
+    private static final int BUFFER_COUNT = 3;
+    // Capture yang lebih besar dari hasil hanya perlu in-flight dan pending
+    private static final int CAPTURE_BUFFER_COUNT = 2;
+    /** Geseran butuh dua tambalan: strip yang baru terlihat dan tepi seberangnya. */
+    public static final int MAX_PATCHES = 2;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Listener listener;
+    private final ArrayList<Bitmap> free = new ArrayList<>(BUFFER_COUNT);
+    // Buffer hasil bebas, hanya bila capture factor > 1
+    private final ArrayList<Bitmap> freeOutputs = new ArrayList<>(2);
+    private final ArrayList<BlurAlgorithm> retired = new ArrayList<>();
+
+    private volatile int generation;
+    // Naik setiap buffer dilepas; bitmap in-flight dari epoch lama dibuang saat kembali
+    private int epoch;
+    private int width, height, allocated;
+    private int captureFactor = 1;
+    private Bitmap.Config config;
+
+    private Bitmap front;
+    private BlurAlgorithm frontAlgorithm;
+    private float frontRadius;
+    private long frontFingerprint;
+    // Area capture tiap frame (koordinat root), kosong bila tidak diberikan
+    private final Rect frontRegion = new Rect();
+    private Bitmap inFlight;
+    private BlurAlgorithm inFlightAlgorithm;
+    private float inFlightRadius;
+    private long inFlightFingerprint;
+    private final Rect inFlightRegion = new Rect();
+    private int inFlightGeneration;
+    // Front adalah hasil frame yang terakhir diserahkan (bukan frame lama karena batal/gagal)
+    private boolean frontCurrent;
+    private final Rect[] patchBands = {new Rect(), new Rect()};
+    private final Rect[] patchRects = {new Rect(), new Rect()};
+    private int patchCount;
+    private int patchShiftX, patchShiftY;
+    // Hanya dipakai worker; paling banyak satu frame berjalan per pipeline
+    private final int[][] bandPixels = new int[MAX_PATCHES][];
+    private int[] basePixels, capturePixels;
+    private Bitmap pending;
+    private BlurAlgorithm pendingAlgorithm;
+    private float pendingRadius;
+    private long pendingFingerprint;
+    private final Rect pendingRegion = new Rect();
+
+    public BlurPipeline(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Algoritma GPU (RenderEffect) merekam RenderNode dan harus tetap di UI thread.
+     */
+    public static boolean supports(BlurAlgorithm algorithm) {
+        return algorithm != null
+                && !(algorithm instanceof RenderEffectBlurAlgorithm)
+                && !(algorithm instanceof RenderEffectCompatBlurAlgorithm);
+    }
+
+    /**
+     * Atur ukuran hasil blur; buffer capture berukuran {@code captureFactor} kali lebih besar.
+     * Capture pending dan buffer bebas berukuran lama kembali ke {@link BitmapPool}; front dan
+     * frame in-flight tetap dipakai sampai diganti frame baru, sehingga view yang ukurannya
+     * dianimasikan tidak pernah kosong. Factor &gt; 1 butuh {@link DownsampleBlurAlgorithm}.
+     */
+    public void resize(int width, int height, int captureFactor, Bitmap.Config config) {
+        captureFactor = Math.max(1, captureFactor);
+        if (width == this.width && height == this.height && captureFactor == this.captureFactor
+                && config == this.config) {
+            return;
+        }
+        if (pending != null) {
+            BitmapPool.release(pending);
+            pending = null;
+            pendingAlgorithm = null;
+        }
+        for (Bitmap bitmap : free) {
+            BitmapPool.release(bitmap);
+        }
+        free.clear();
+        for (Bitmap bitmap : freeOutputs) {
+            BitmapPool.release(bitmap);
+        }
+        freeOutputs.clear();
+        allocated = 0;
+        frontCurrent = false;
+        // Sidik jari capture ukuran lama tidak sebanding dengan capture baru
+        frontFingerprint = BlurFingerprint.NONE;
+        inFlightFingerprint = BlurFingerprint.NONE;
+        this.width = width;
+        this.height = height;
+        this.captureFactor = captureFactor;
+        this.config = config;
+    }
+
+    public int getCaptureFactor() {
+        return captureFactor;
+    }
+
+    /**
+     * Bitmap kosong untuk capture berikutnya, atau {@code null} bila belum ada ukuran.
+     * Capture pending yang belum sempat di-blur dipakai ulang lebih dulu.
+     */
+    public Bitmap obtainBuffer() {
+        if (width <= 0 || height <= 0) return null;
+        if (pending != null) {
+            Bitmap bitmap = pending;
+            pending = null;
+            pendingAlgorithm = null;
+            return bitmap;
+        }
+        if (!free.isEmpty()) {
+            return free.remove(free.size() - 1);
+        }
+        if (allocated < (captureFactor > 1 ? CAPTURE_BUFFER_COUNT : BUFFER_COUNT)) {
+            allocated++;
+            return BitmapPool.acquire(width * captureFactor, height * captureFactor, config);
+        }
+        return null;
+    }
+
+    /**
+     * Serahkan hasil capture dari {@link #obtainBuffer()} untuk di-blur in-place di thread latar.
+     * {@code fingerprint} boleh {@link BlurFingerprint#NONE}; {@code region} adalah area capture
+     * yang dikembalikan lagi oleh {@link #getFrontRegion()}, boleh {@code null}.
+     */
+    public void submit(Bitmap bitmap, BlurAlgorithm algorithm, float radius, long fingerprint, Rect region) {
+        checkAlgorithm(algorithm);
+        frontCurrent = false;
+        if (inFlight == null) {
+            start(bitmap, algorithm, radius, fingerprint, region, null);
+        } else {
+            pending = bitmap;
+            pendingAlgorithm = algorithm;
+            pendingRadius = radius;
+            pendingFingerprint = fingerprint;
+            setRegion(pendingRegion, region);
+        }
+    }
+
+    /**
+     * Front bisa menjadi dasar {@link #submitPatch}: tidak ada frame lain yang berjalan dan front
+     * adalah hasil capture terakhir dengan algoritma dan radius yang sama.
+     */
+    public boolean canPatch(BlurAlgorithm algorithm, float radius) {
+        return inFlight == null && pending == null && front != null && frontCurrent
+                && isOutputSize(front) && algorithm == frontAlgorithm && radius == frontRadius;
+    }
+
+    /**
+     * Seperti {@link #submit}, tetapi hanya {@code bands} dari {@code bitmap} yang berisi capture
+     * baru. Di thread latar tiap band di-blur, lalu front disalin ke {@code bitmap} dengan geseran
+     * {@code shiftX/shiftY} piksel dan tiap {@code patches[i]} (di dalam band-nya, minimal sejauh
+     * jangkauan kernel dari tepi band kecuali di tepi bitmap) ditimpa hasil band. Area yang tidak
+     * tertutup front setelah digeser harus berada di dalam salah satu patch. Hanya boleh setelah
+     * {@link #canPatch} bernilai true.
+     */
+    public void submitPatch(Bitmap bitmap, RegionBlurAlgorithm algorithm, float radius,
+                            Rect[] bands, Rect[] patches, int count, int shiftX, int shiftY, Rect region) {
+        checkAlgorithm(algorithm);
+        frontCurrent = false;
+        patchCount = Math.min(count, MAX_PATCHES);
+        for (int i = 0; i < patchCount; i++) {
+            patchBands[i].set(bands[i]);
+            patchRects[i].set(patches[i]);
+        }
+        patchShiftX = shiftX;
+        patchShiftY = shiftY;
+        start(bitmap, algorithm, radius, BlurFingerprint.NONE, region, front);
+    }
+
+    /**
+     * Frame terbaru yang akan tampil (atau sudah tampil) berasal dari capture dengan sidik jari,
+     * algoritma dan radius yang sama, sehingga capture baru tidak perlu di-blur.
+     */
+    public boolean isLatest(long fingerprint, BlurAlgorithm algorithm, float radius) {
+        if (fingerprint == BlurFingerprint.NONE) return false;
+        if (pending != null) {
+            return fingerprint == pendingFingerprint && algorithm == pendingAlgorithm && radius == pendingRadius;
+        }
+        // Sidik jari frame dari sebelum resize sudah dikosongkan, jadi ukuran baru tetap di-blur
+        if (inFlight != null && inFlightGeneration == generation) {
+            return fingerprint == inFlightFingerprint && algorithm == inFlightAlgorithm && radius == inFlightRadius;
+        }
+        return front != null
+                && fingerprint == frontFingerprint && algorithm == frontAlgorithm && radius == frontRadius;
+    }
+
+    /**
+     * Kembalikan buffer dari {@link #obtainBuffer()} yang tidak jadi diserahkan.
+     */
+    public void recycle(Bitmap bitmap) {
+        if (bitmap == null) return;
+        if (isCaptureSize(bitmap)) {
+            free.add(bitmap);
+        } else if (isOutputSize(bitmap)) {
+            freeOutputs.add(bitmap);
+        } else {
+            BitmapPool.release(bitmap);
+        }
+    }
+
+    /**
+     * Hasil blur terakhir; bisa berukuran lama setelah {@link #resize}, gambar dengan skala.
+     */
+    public Bitmap getFrontBitmap() {
+        return front;
+    }
+
+    /**
+     * Area capture front seperti diberikan saat submit, atau {@code null}.
+     */
+    public Rect getFrontRegion() {
+        return front != null && !frontRegion.isEmpty() ? frontRegion : null;
+    }
+
+    /**
+     * Batalkan capture pending dan abaikan hasil frame yang sedang berjalan.
+     * Front buffer tetap dipertahankan agar view tidak berkedip.
+     */
+    public void cancel() {
+        if (inFlight != null || pending != null) {
+            frontCurrent = false;
+        }
+        generation++;
+        if (pending != null) {
+            free.add(pending);
+            pending = null;
+            pendingAlgorithm = null;
+        }
+    }
+
+    /**
+     * Hancurkan algoritma; ditunda sampai frame in-flight yang memakainya selesai.
+     */
+    public void retire(BlurAlgorithm algorithm) {
+        if (algorithm == pendingAlgorithm) {
+            cancel();
+        }
+        if (inFlight != null && algorithm == inFlightAlgorithm) {
+            retired.add(algorithm);
+        } else {
+            algorithm.destroy();
+        }
+    }
+
+    /**
+     * Lepas semua buffer. Pipeline bisa dipakai lagi setelah {@link #resize}.
+     */
+    public void release() {
+        releaseBuffers();
+        width = height = 0;
+    }
+
+    /**
+     * Lepas semua buffer frame, termasuk front, tanpa mengubah ukuran. Buffer baru diambil dari
+     * {@link BitmapPool} pada {@link #obtainBuffer()} berikutnya.
+     */
+    public void releaseFrames() {
+        releaseBuffers();
+    }
+
+    /**
+     * Lepas buffer kerja worker dan {@code algorithm}. Dijalankan di thread frame setelah frame
+     * yang sedang berjalan, jadi tidak pernah bersamaan dengan blur.
+     */
+    public void releaseScratch(BlurAlgorithm algorithm) {
+        BlurExecutor.executeFrame(() -> {
+            for (int i = 0; i < MAX_PATCHES; i++) {
+                bandPixels[i] = null;
+            }
+            basePixels = null;
+            capturePixels = null;
+            if (algorithm != null) {
+                algorithm.releaseBuffers();
+            }
+        });
+    }
+
+    /**
+     * Buffer bebas dan front kembali ke pool; buffer in-flight menyusul saat worker selesai.
+     */
+    private void releaseBuffers() {
+        cancel();
+        for (Bitmap bitmap : free) {
+            BitmapPool.release(bitmap);
+        }
+        free.clear();
+        for (Bitmap bitmap : freeOutputs) {
+            BitmapPool.release(bitmap);
+        }
+        freeOutputs.clear();
+        BitmapPool.release(front);
+        front = null;
+        frontAlgorithm = null;
+        allocated = 0;
+        epoch++;
+    }
+
+    private boolean isCaptureSize(Bitmap bitmap) {
+        return bitmap.getWidth() == width * captureFactor && bitmap.getHeight() == height * captureFactor
+                && bitmap.getConfig() == config;
+    }
+
+    private boolean isOutputSize(Bitmap bitmap) {
+        return bitmap.getWidth() == width && bitmap.getHeight() == height && bitmap.getConfig() == config;
+    }
+
+    private void checkAlgorithm(BlurAlgorithm algorithm) {
+        if (captureFactor > 1 && !(algorithm instanceof DownsampleBlurAlgorithm)) {
+            throw new IllegalArgumentException("Capture factor " + captureFactor + " needs a DownsampleBlurAlgorithm");
+        }
+    }
+
+    private Bitmap obtainOutput() {
+        if (!freeOutputs.isEmpty()) {
+            return freeOutputs.remove(freeOutputs.size() - 1);
+        }
+        return BitmapPool.acquire(width, height, config);
+    }
+
+    private static void setRegion(Rect out, Rect region) {
+        if (region != null) {
+            out.set(region);
+        } else {
+            out.setEmpty();
+        }
+    }
+
+    private void start(Bitmap bitmap, BlurAlgorithm algorithm, float radius, long fingerprint, Rect region,
+                       Bitmap base) {
+        inFlight = bitmap;
+        inFlightAlgorithm = algorithm;
+        inFlightRadius = radius;
+        inFlightFingerprint = fingerprint;
+        setRegion(inFlightRegion, region);
+        inFlightGeneration = generation;
+        final int frameGeneration = generation;
+        final int frameEpoch = epoch;
+        final int factor = captureFactor;
+        // Factor 1: blur in-place, capture sekaligus menjadi hasil
+        final Bitmap output = factor > 1 ? obtainOutput() : bitmap;
+        BlurExecutor.executeFrame(() -> {
+            boolean blurred = false;
+            if (frameGeneration == generation) {
+                try {
+                    if (base != null) {
+                        blurPatch(bitmap, output, base, (RegionBlurAlgorithm) algorithm, radius, factor);
+                    } else if (factor > 1) {
+                        blurDownsampled(bitmap, output, (DownsampleBlurAlgorithm) algorithm, radius, factor);
+                    } else {
+                        algorithm.blur(bitmap, radius);
+                    }
+                    blurred = true;
+                } catch (Throwable t) {
+                    t.printStackTrace();
+                }
+            }
+            final boolean success = blurred;
+            mainHandler.post(() -> onFrameFinished(bitmap, output, success, factor, frameGeneration, frameEpoch));
+        });
+    }
+
+    private void onFrameFinished(Bitmap bitmap, Bitmap output, boolean success, int factor,
+                                 int frameGeneration, int frameEpoch) {
+        BlurAlgorithm algorithm = inFlightAlgorithm;
+        inFlight = null;
+        inFlightAlgorithm = null;
+
+        boolean algorithmRetired = retired.remove(algorithm);
+        if (algorithmRetired) {
+            algorithm.destroy();
+        }
+        if (!algorithmRetired && success && frameGeneration == generation && frameEpoch == epoch) {
+            algorithm.prepare();
+            // Front berukuran lama (setelah resize) kembali ke pool di sini
+            recycle(front);
+            front = output;
+            if (bitmap != output) {
+                recycle(bitmap);
+            }
+            frontCurrent = pending == null && factor == captureFactor && isOutputSize(output);
+            frontAlgorithm = algorithm;
+            frontRadius = inFlightRadius;
+            frontFingerprint = inFlightFingerprint;
+            frontRegion.set(inFlightRegion);
+            listener.onBlurReady();
+        } else if (frameEpoch == epoch) {
+            recycle(bitmap);
+            if (bitmap != output) {
+                recycle(output);
+            }
+        } else {
+            // Buffer yang sudah dilepas saat frame berjalan
+            BitmapPool.release(bitmap);
+            if (bitmap != output) {
+                BitmapPool.release(output);
+            }
+        }
+
+        if (pending != null) {
+            Bitmap next = pending;
+            pending = null;
+            BlurAlgorithm nextAlgorithm = pendingAlgorithm;
+            pendingAlgorithm = null;
+            start(next, nextAlgorithm, pendingRadius, pendingFingerprint, pendingRegion, null);
+        }
+    }
+
+    /**
+     * Di thread latar: downscale dan blur seluruh capture ke {@code output}.
+     */
+    private void blurDownsampled(Bitmap capture, Bitmap output, DownsampleBlurAlgorithm algorithm,
+                                 float radius, int factor) {
+        int cw = capture.getWidth();
+        int ch = capture.getHeight();
+        int w = output.getWidth();
+        int h = output.getHeight();
+        if (capturePixels == null || capturePixels.length < cw * ch) {
+            capturePixels = new int[cw * ch];
+        }
+        if (basePixels == null || basePixels.length < w * h) {
+            basePixels = new int[w * h];
+        }
+        capture.getPixels(capturePixels, 0, cw, 0, 0, cw, ch);
+        algorithm.blurPixelsDownsampled(capturePixels, 0, cw, ch, cw, factor, basePixels, 0, w, radius);
+        output.setPixels(basePixels, 0, w, 0, 0, w, h);
+    }
+
+    /**
+     * Di thread latar: blur band dari capture, salin front (digeser) ke {@code output}, lalu timpa
+     * area patch dengan hasil band. Band dalam koordinat hasil; dengan {@code factor} &gt; 1
+     * sumbernya adalah blok capture yang sejajar, jadi hasilnya sama dengan blur penuh.
+     */
+    private void blurPatch(Bitmap capture, Bitmap output, Bitmap base, RegionBlurAlgorithm algorithm,
+                           float radius, int factor) {
+        int w = output.getWidth();
+        int h = output.getHeight();
+        if (basePixels == null || basePixels.length < w * h) {
+            basePixels = new int[w * h];
+        }
+
+        // Semua band dibaca sebelum bitmap ditimpa front
+        for (int i = 0; i < patchCount; i++) {
+            Rect band = patchBands[i];
+            int bw = band.width();
+            int bh = band.height();
+            if (bandPixels[i] == null || bandPixels[i].length < bw * bh) {
+                bandPixels[i] = new int[bw * bh];
+            }
+            if (factor == 1) {
+                capture.getPixels(bandPixels[i], 0, bw, band.left, band.top, bw, bh);
+                algorithm.blurPixels(bandPixels[i], 0, bw, bh, bw, radius);
+            } else {
+                int sw = bw * factor;
+                int sh = bh * factor;
+                if (capturePixels == null || capturePixels.length < sw * sh) {
+                    capturePixels = new int[sw * sh];
+                }
+                capture.getPixels(capturePixels, 0, sw, band.left * factor, band.top * factor, sw, sh);
+                ((DownsampleBlurAlgorithm) algorithm).blurPixelsDownsampled(capturePixels, 0, sw, sh, sw, factor,
+                        bandPixels[i], 0, bw, radius);
+            }
+        }
+
+        base.getPixels(basePixels, 0, w, 0, 0, w, h);
+        int sx = patchShiftX, sy = patchShiftY;
+        int cw = w - Math.abs(sx);
+        int ch = h - Math.abs(sy);
+        if (cw > 0 && ch > 0) {
+            int srcOffset = Math.max(0, -sy) * w + Math.max(0, -sx);
+            output.setPixels(basePixels, srcOffset, w, Math.max(0, sx), Math.max(0, sy), cw, ch);
+        }
+        for (int i = 0; i < patchCount; i++) {
+            Rect band = patchBands[i];
+            Rect patch = patchRects[i];
+            int bw = band.width();
+            int offset = (patch.top - band.top) * bw + (patch.left - band.left);
+            output.setPixels(bandPixels[i], offset, bw, patch.left, patch.top, patch.width(), patch.height());
+        }
+    }
+}
@@ -51,6 +51,11 @@ public class BlurPreDrawListener implements ViewTreeObserver.OnPreDrawListener {
                     ((BlurViewManager) target).refreshBlur();
                 }
                 break;
+            case 2:
+                if (target instanceof BlurCaptureCoordinator) {
+                    ((BlurCaptureCoordinator) target).dispatchFrame();
+                }
+                break;
         }
         return true;
     }
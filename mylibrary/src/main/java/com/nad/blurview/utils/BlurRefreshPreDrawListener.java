@@ -22,8 +22,6 @@
  */
 package com.nad.blurview.utils;
 
-import android.graphics.Rect;
-import android.view.View;
 import android.view.ViewTreeObserver;
 
 import androidx.fragment.app.Fragment;
@@ -47,11 +45,7 @@ public class BlurRefreshPreDrawListener implements ViewTreeObserver.OnPreDrawLis
                 break;
             case 1:
                 if (target instanceof VisibleFrameTracker) {
-                    View view = ((VisibleFrameTracker) target).targetView;
-                    Rect visibleFrame = new Rect();
-                    view.getWindowVisibleDisplayFrame(visibleFrame);
-                    int height = view.getHeight();
-                    // Tambahkan aksi jika diperlukan
+                    ((VisibleFrameTracker) target).update();
                 }
                 break;
             case 2:
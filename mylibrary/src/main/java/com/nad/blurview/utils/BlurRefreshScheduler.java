@@ -0,0 +1,99 @@
+/*
+ * MIT License
+ * Copyright (c) 2024 Muhamad Jaelani
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.nad.blurview.utils;
+
+import android.view.Choreographer;
+import android.view.View;
+import android.view.animation.AnimationUtils;
+
+/**
+ * Pembatas laju refresh blur. Waktu frame diambil dari jam animasi yang dikunci
+ * {@link Choreographer} selama frame berjalan, sehingga jarak antar refresh mengikuti vsync.
+ * <p>
+ * Frame yang dilewati tetap menggambar hasil blur sebelumnya. Bila frame terakhir dari
+ * rangkaian perubahan kebetulan dilewati, satu frame callback menyusul di slot berikutnya
+ * dan meng-invalidate view agar keadaan akhir tetap ter-capture.
+ */
+public final class BlurRefreshScheduler implements Choreographer.FrameCallback {
+
+    // Toleransi jitter vsync agar 30 Hz di layar 60 Hz tidak jatuh ke 20 Hz
+    private static final long SLACK_MILLIS = 2L;
+
+    private final View view;
+    private long intervalMillis;
+    private long lastRefreshMillis = Long.MIN_VALUE;
+    private boolean trailingPosted;
+
+    public BlurRefreshScheduler(View view) {
+        this.view = view;
+    }
+
+    /**
+     * Laju refresh maksimum dalam Hz; {@code 0} atau kurang berarti mengikuti setiap frame.
+     */
+    public void setMaxRefreshRate(float refreshRate) {
+        intervalMillis = refreshRate > 0f ? Math.round(1000.0 / refreshRate) : 0L;
+        if (intervalMillis == 0L) {
+            cancel();
+        }
+    }
+
+    public float getMaxRefreshRate() {
+        return intervalMillis > 0L ? 1000f / intervalMillis : 0f;
+    }
+
+    /**
+     * Dipanggil dari pre-draw. {@code true} bila frame ini boleh capture dan blur.
+     */
+    public boolean shouldRefresh() {
+        if (intervalMillis == 0L) return true;
+
+        long now = AnimationUtils.currentAnimationTimeMillis();
+        long elapsed = now - lastRefreshMillis;
+        if (lastRefreshMillis == Long.MIN_VALUE || elapsed >= intervalMillis - SLACK_MILLIS) {
+            lastRefreshMillis = now;
+            return true;
+        }
+        if (!trailingPosted) {
+            trailingPosted = true;
+            Choreographer.getInstance().postFrameCallbackDelayed(this, intervalMillis - elapsed);
+        }
+        return false;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        trailingPosted = false;
+        view.invalidate();
+    }
+
+    /**
+     * Batalkan refresh susulan yang sudah dijadwalkan.
+     */
+    public void cancel() {
+        if (trailingPosted) {
+            trailingPosted = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+}
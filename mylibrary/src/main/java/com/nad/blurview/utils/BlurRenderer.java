@@ -8,6 +8,15 @@ public interface BlurRenderer {
     BlurRenderer setOverlayColor(int color);
     BlurRenderer enableBlur(boolean enable);
     BlurRenderer enableAutoUpdate(boolean enable);
+
+    /**
+     * Laju refresh maksimum dalam Hz; {@code 0} berarti setiap frame. Default tanpa batas,
+     * agar implementasi di luar library tidak wajib meng-override.
+     */
+    default BlurRenderer setMaxRefreshRate(float refreshRate) {
+        return this;
+    }
+
     boolean draw(Canvas canvas);
     void update();
 
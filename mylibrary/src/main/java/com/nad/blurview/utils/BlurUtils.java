@@ -25,9 +25,17 @@ package com.nad.blurview.utils;
 import android.graphics.Bitmap;
 import android.os.Looper;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
 public class BlurUtils {
 
-    private static final ThreadLocal<BlurBuffers> buffersThreadLocal = ThreadLocal.withInitial(BlurBuffers::new);
+    private static final ThreadLocal<BlurBuffers> buffersThreadLocal = ThreadLocal.withInitial(BlurUtils::newBuffers);
+    // Buffer semua thread, agar bisa dilepas dari luar thread pemiliknya; lepas sendiri saat thread mati
+    private static final Set<BlurBuffers> allBuffers = Collections.newSetFromMap(new WeakHashMap<>());
 
     public static Bitmap blur(Bitmap input, int radius, float scale, boolean canReuse) {
         if (radius < 1 || input == null || input.isRecycled()) return null;
@@ -40,6 +48,14 @@ public class BlurUtils {
         int width = Math.max(1, Math.round(input.getWidth() * scale));
         int height = Math.max(1, Math.round(input.getHeight() * scale));
 
+        // Faktor bulat (0.5, 0.25, ...) bisa di-downscale langsung di kernel tanpa bitmap perantara
+        int factor = scale > 0f && scale < 1.0f ? Math.round(1f / scale) : 1;
+        if (factor > 1
+                && StackBlurKernel.downsampledSize(input.getWidth(), factor) == width
+                && StackBlurKernel.downsampledSize(input.getHeight(), factor) == height) {
+            return applyDownsampledStackBlur(input, factor, radius);
+        }
+
         Bitmap scaledBitmap;
         try {
             scaledBitmap = (scale != 1.0f)
@@ -69,216 +85,114 @@ public class BlurUtils {
         try {
             int w = bitmap.getWidth();
             int h = bitmap.getHeight();
-            int wh = w * h;
-
-            int[] pixels = new int[wh];
-            bitmap.getPixels(pixels, 0, w, 0, 0, w, h);
 
             BlurBuffers buffers = buffersThreadLocal.get();
             if (buffers == null) {
-                buffers = new BlurBuffers();
+                buffers = newBuffers();
                 buffersThreadLocal.set(buffers);
             }
-            buffers.ensureCapacity(wh, Math.max(w, h), radius);
-
-            int[] r = buffers.r, g = buffers.g, b = buffers.b, dv = buffers.dv, vmin = buffers.vmin;
-            int[][] stack = buffers.stack;
-
-            int div = radius * 2 + 1;
-            int yi = 0, yw = 0;
-
-            for (int y = 0; y < h; y++) {
-                int rinsum = 0, ginsum = 0, binsum = 0;
-                int routsum = 0, goutsum = 0, boutsum = 0;
-                int rsum = 0, gsum = 0, bsum = 0;
-
-                for (int i = -radius; i <= radius; i++) {
-                    int x = clamp(i, w - 1);
-                    int p = pixels[yi + x];
-                    int[] sir = stack[i + radius];
-                    sir[0] = (p >> 16) & 0xff;
-                    sir[1] = (p >> 8) & 0xff;
-                    sir[2] = p & 0xff;
-
-                    int rbs = radius + 1 - Math.abs(i);
-                    rsum += sir[0] * rbs;
-                    gsum += sir[1] * rbs;
-                    bsum += sir[2] * rbs;
-
-                    if (i > 0) {
-                        rinsum += sir[0];
-                        ginsum += sir[1];
-                        binsum += sir[2];
-                    } else {
-                        routsum += sir[0];
-                        goutsum += sir[1];
-                        boutsum += sir[2];
-                    }
-                }
-
-                int stackPointer = radius;
-
-                for (int x = 0; x < w; x++) {
-                    r[yi] = dv[rsum];
-                    g[yi] = dv[gsum];
-                    b[yi] = dv[bsum];
-
-                    rsum -= routsum;
-                    gsum -= goutsum;
-                    bsum -= boutsum;
-
-                    int stackStart = (stackPointer - radius + div) % div;
-                    int[] sir = stack[stackStart];
-
-                    routsum -= sir[0];
-                    goutsum -= sir[1];
-                    boutsum -= sir[2];
-
-                    int nextPixelIndex = yw + vmin[Math.min(x + radius + 1, w - 1)];
-                    int p = pixels[nextPixelIndex];
-                    sir[0] = (p >> 16) & 0xff;
-                    sir[1] = (p >> 8) & 0xff;
-                    sir[2] = p & 0xff;
-
-                    rinsum += sir[0];
-                    ginsum += sir[1];
-                    binsum += sir[2];
-
-                    rsum += rinsum;
-                    gsum += ginsum;
-                    bsum += binsum;
-
-                    stackPointer = (stackPointer + 1) % div;
-                    sir = stack[stackPointer];
-
-                    routsum += sir[0];
-                    goutsum += sir[1];
-                    boutsum += sir[2];
-
-                    rinsum -= sir[0];
-                    ginsum -= sir[1];
-                    binsum -= sir[2];
-
-                    yi++;
-                }
-                yw += w;
+            buffers.lock.lock();
+            try {
+                int[] pixels = buffers.ensurePixels(w * h);
+
+                bitmap.getPixels(pixels, 0, w, 0, 0, w, h);
+                buffers.kernel.blur(pixels, 0, w, h, w, radius);
+                bitmap.setPixels(pixels, 0, w, 0, 0, w, h);
+            } finally {
+                buffers.lock.unlock();
             }
+            return bitmap;
+        } catch (Throwable t) {
+            t.printStackTrace();
+            return bitmap;
+        }
+    }
 
-            for (int x = 0; x < w; x++) {
-                int rinsum = 0, ginsum = 0, binsum = 0;
-                int routsum = 0, goutsum = 0, boutsum = 0;
-                int rsum = 0, gsum = 0, bsum = 0;
-
-                int yp = -radius * w;
-                for (int i = -radius; i <= radius; i++) {
-                    int yi2 = clamp(yp, h - 1) * w + x;
-                    int[] sir = stack[i + radius];
-
-                    sir[0] = r[yi2];
-                    sir[1] = g[yi2];
-                    sir[2] = b[yi2];
-
-                    int rbs = radius + 1 - Math.abs(i);
-                    rsum += r[yi2] * rbs;
-                    gsum += g[yi2] * rbs;
-                    bsum += b[yi2] * rbs;
-
-                    if (i > 0) {
-                        rinsum += sir[0];
-                        ginsum += sir[1];
-                        binsum += sir[2];
-                    } else {
-                        routsum += sir[0];
-                        goutsum += sir[1];
-                        boutsum += sir[2];
-                    }
-
-                    if (i < h - 1) yp++;
-                }
-
-                int yi2 = x;
-                int stackPointer = radius;
-                for (int y = 0; y < h; y++) {
-                    pixels[yi2] = (0xff000000) | (dv[rsum] << 16) | (dv[gsum] << 8) | dv[bsum];
-
-                    rsum -= routsum;
-                    gsum -= goutsum;
-                    bsum -= boutsum;
-
-                    int stackStart = (stackPointer - radius + div) % div;
-                    int[] sir = stack[stackStart];
-
-                    routsum -= sir[0];
-                    goutsum -= sir[1];
-                    boutsum -= sir[2];
-
-                    int p = x + vmin[Math.min(y + radius + 1, h - 1)] * w;
-                    sir[0] = r[p];
-                    sir[1] = g[p];
-                    sir[2] = b[p];
-
-                    rinsum += sir[0];
-                    ginsum += sir[1];
-                    binsum += sir[2];
-
-                    rsum += rinsum;
-                    gsum += ginsum;
-                    bsum += binsum;
-
-                    stackPointer = (stackPointer + 1) % div;
-                    sir = stack[stackPointer];
-
-                    routsum += sir[0];
-                    goutsum += sir[1];
-                    boutsum += sir[2];
-
-                    rinsum -= sir[0];
-                    ginsum -= sir[1];
-                    binsum -= sir[2];
+    /**
+     * Downscale dengan box filter {@code factor x factor} dan blur dalam satu jalan.
+     * Satu-satunya alokasi adalah bitmap hasil; buffer piksel dipakai ulang per thread.
+     */
+    public static Bitmap applyDownsampledStackBlur(Bitmap input, int factor, int radius) {
+        try {
+            int w = input.getWidth();
+            int h = input.getHeight();
+            int dw = StackBlurKernel.downsampledSize(w, factor);
+            int dh = StackBlurKernel.downsampledSize(h, factor);
 
-                    yi2 += w;
-                }
+            BlurBuffers buffers = buffersThreadLocal.get();
+            if (buffers == null) {
+                buffers = newBuffers();
+                buffersThreadLocal.set(buffers);
+            }
+            buffers.lock.lock();
+            try {
+                int[] source = buffers.ensurePixels(w * h);
+                int[] output = buffers.ensureOutput(dw * dh);
+
+                input.getPixels(source, 0, w, 0, 0, w, h);
+                buffers.kernel.blurDownsampled(source, 0, w, h, w, factor, output, 0, dw, radius);
+
+                Bitmap bitmap = Bitmap.createBitmap(dw, dh, Bitmap.Config.ARGB_8888);
+                bitmap.setPixels(output, 0, dw, 0, 0, dw, dh);
+                return bitmap;
+            } finally {
+                buffers.lock.unlock();
             }
-
-            bitmap.setPixels(pixels, 0, w, 0, 0, w, h);
-            return bitmap;
         } catch (Throwable t) {
             t.printStackTrace();
-            return bitmap;
+            return null;
         }
     }
 
-    private static int clamp(int val, int max) {
-        return Math.max(0, Math.min(max, val));
+    /**
+     * Lepas buffer kerja semua thread yang pernah mem-blur. Buffer yang sedang dipakai
+     * dilewati; semuanya dialokasikan ulang pada blur berikutnya.
+     */
+    public static void releaseBuffers() {
+        ArrayList<BlurBuffers> snapshot;
+        synchronized (allBuffers) {
+            snapshot = new ArrayList<>(allBuffers);
+        }
+        for (BlurBuffers buffers : snapshot) {
+            if (!buffers.lock.tryLock()) continue;
+            try {
+                buffers.release();
+            } finally {
+                buffers.lock.unlock();
+            }
+        }
     }
 
-    private static class BlurBuffers {
-        int[] r, g, b, dv, vmin;
-        int[][] stack;
+    private static BlurBuffers newBuffers() {
+        BlurBuffers buffers = new BlurBuffers();
+        synchronized (allBuffers) {
+            allBuffers.add(buffers);
+        }
+        return buffers;
+    }
 
-        void ensureCapacity(int pixelCount, int maxDim, int radius) {
-            if (r == null || r.length < pixelCount) {
-                r = new int[pixelCount];
-                g = new int[pixelCount];
-                b = new int[pixelCount];
-            }
+    private static class BlurBuffers {
+        final StackBlurKernel kernel = new StackBlurKernel();
+        final ReentrantLock lock = new ReentrantLock();
+        int[] pixels, output;
 
-            int div = radius * 2 + 1;
-            if (dv == null || dv.length < 256 * div * div) {
-                dv = new int[256 * div * div];
-                for (int i = 0; i < dv.length; i++) {
-                    dv[i] = i / (div * div);
-                }
-            }
+        void release() {
+            pixels = output = null;
+            kernel.release();
+        }
 
-            if (stack == null || stack.length != div) {
-                stack = new int[div][3];
+        int[] ensurePixels(int pixelCount) {
+            if (pixels == null || pixels.length < pixelCount) {
+                pixels = new int[pixelCount];
             }
+            return pixels;
+        }
 
-            if (vmin == null || vmin.length < maxDim) {
-                vmin = new int[maxDim];
-                for (int i = 0; i < maxDim; i++) vmin[i] = i;
+        int[] ensureOutput(int pixelCount) {
+            if (output == null || output.length < pixelCount) {
+                output = new int[pixelCount];
             }
+            return output;
         }
     }
 }
\ No newline at end of file
@@ -22,15 +22,20 @@
  */
 package com.nad.blurview.utils;
 
+import android.content.ComponentCallbacks2;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.view.View;
 import android.view.ViewGroup;
-import android.view.ViewTreeObserver;
 
 import com.nad.blurview.NadBlur;
 
-public class BlurViewManager implements BlurRenderer{
-    private final BlurAlgorithm blurAlgorithm;
+import java.util.Collections;
+import java.util.Set;
+
+public class BlurViewManager implements BlurRenderer, BlurCaptureCoordinator.Client, BlurMemoryTrimmer.Client {
+    private BlurAlgorithm blurAlgorithm;
     private BlurCanvas blurCanvas;
     private Bitmap blurBitmap;
     private final NadBlur blurView;
@@ -39,13 +44,55 @@ public class BlurViewManager implements BlurRenderer{
     private final ViewGroup rootViewGroup;
 
     private boolean autoUpdateEnabled = true;
+
+    // Auto update yang diminta; baru aktif selama host lifecycle berjalan
+    private boolean autoUpdateRequested;
+    private boolean hostStarted = true;
     private float blurRadius = 16f;
 
     private final int[] rootLocation = new int[2];
     private final int[] viewLocation = new int[2];
+    private int bitmapWidth, bitmapHeight;
+    // Capture diambil supersampleFactor kali lebih tajam dari bitmap blur bila algoritmanya bisa
+    // men-downscale sendiri; captureFactor adalah factor yang sedang dipakai
+    private int supersampleFactor = 1;
+    private int captureFactor = 1;
+    private final Rect captureClip = new Rect();
+    // Area capture dalam koordinat root: area view, diperlebar margin over-capture
+    private final Rect captureRegion = new Rect();
+    private final Rect viewRegion = new Rect();
+    // Over-capture: view yang bergerak di dalam margin cukup menggambar potongan lain dari hasil lama
+    private int overCaptureMargin;
+    private final Rect drawnRegion = new Rect();
+    // Area capture frame terakhir yang diserahkan ke pipeline
+    private final Rect submittedRegion = new Rect();
+    // Refresh sebagian: area dirty, area yang ditimpa dan band sumbernya (koordinat bitmap)
+    private final Rect dirtyRect = new Rect();
+    private final Rect[] patchRects = {new Rect(), new Rect()};
+    private final Rect[] patchBands = {new Rect(), new Rect()};
+    private final Rect[] patchCaptureRegions = {new Rect(), new Rect()};
+    private int patchCount;
+    private int patchShiftX, patchShiftY;
+    // Mode scroll: hasil lama digeser, hanya strip yang baru terlihat di-blur
+    private boolean scrollShiftEnabled;
+    private final ScrollShiftDetector scrollShift;
+    private final float[] shift = new float[2];
+    private boolean regionCaptureEnabled = true;
+    private Set<View> excludedViews = Collections.emptySet();
+
+    // Algoritma CPU di-blur di thread latar; RenderEffect tetap sinkron di UI thread
+    private final BlurPipeline pipeline = new BlurPipeline(this::onBlurReady);
+    private boolean skipNextRefresh;
+    private final BlurRefreshScheduler refreshScheduler;
+    // Refresh hanya bila isi di belakang view berubah
+    private final BlurDirtyTracker dirtyTracker;
+    // Capture dan blur berhenti selama view tidak terlihat
+    private final VisibleFrameTracker visibility;
 
     // Listener untuk preDraw, akan dihandle belakangan
     public final BlurPreDrawListener preDrawListener = new BlurPreDrawListener(this, 1);
+    // Pre-draw dan capture root dibagi dengan blur view lain pada root yang sama
+    private BlurCaptureCoordinator captureCoordinator;
 
     private boolean isBlurPrepared = false;
 
@@ -54,6 +101,12 @@ public class BlurViewManager implements BlurRenderer{
         this.blurView = blurView;
         this.overlayColor = overlayColor;
         this.blurAlgorithm = blurAlgorithm;
+        this.refreshScheduler = new BlurRefreshScheduler(blurView);
+        this.dirtyTracker = new BlurDirtyTracker(blurView, rootViewGroup);
+        this.visibility = new VisibleFrameTracker(blurView);
+        visibility.setListener(this::onVisibilityChanged);
+        BlurMemoryTrimmer.register(this);
+        this.scrollShift = new ScrollShiftDetector(blurView, rootViewGroup);
         // Inject context jika diperlukan oleh algoritma
         if (blurAlgorithm instanceof RenderEffectBlurAlgorithm) {
             ((RenderEffectBlurAlgorithm) blurAlgorithm).setContext(blurView.getContext());
@@ -70,39 +123,106 @@ public class BlurViewManager implements BlurRenderer{
         }
 
         blurView.setWillNotDraw(false);
+        width += 2 * overCaptureMargin;
+        height += 2 * overCaptureMargin;
+        submittedRegion.setEmpty();
 
         int scaledWidth = (int) Math.ceil(width / 6.0f);
         int alignedWidth = scaledWidth + (64 - scaledWidth % 64) % 64;
 
         int scaledHeight = (int) Math.ceil((float) height / ((float) width / alignedWidth));
 
-        blurBitmap = Bitmap.createBitmap(alignedWidth, scaledHeight, blurAlgorithm.getConfig());
-        blurCanvas = new BlurCanvas(blurBitmap);
+        bitmapWidth = alignedWidth;
+        bitmapHeight = scaledHeight;
+        if (blurCanvas == null) {
+            blurCanvas = new BlurCanvas();
+        }
+        if (BlurPipeline.supports(blurAlgorithm)) {
+            BitmapPool.release(blurBitmap);
+            blurBitmap = null;
+            captureFactor = blurAlgorithm instanceof DownsampleBlurAlgorithm ? supersampleFactor : 1;
+            pipeline.resize(alignedWidth, scaledHeight, captureFactor, blurAlgorithm.getConfig());
+        } else {
+            captureFactor = 1;
+            pipeline.release();
+            if (blurBitmap == null || blurBitmap.getWidth() != alignedWidth || blurBitmap.getHeight() != scaledHeight
+                    || blurBitmap.getConfig() != blurAlgorithm.getConfig()) {
+                BitmapPool.release(blurBitmap);
+                blurBitmap = BitmapPool.acquire(alignedWidth, scaledHeight, blurAlgorithm.getConfig());
+            }
+            blurCanvas.setBitmap(blurBitmap);
+        }
         isBlurPrepared = true;
 
         refreshBlur();
     }
-    private void updateCanvasTransform() {
+    private void updateViewRegion(Rect out) {
         rootViewGroup.getLocationOnScreen(rootLocation);
         blurView.getLocationOnScreen(viewLocation);
 
         int dx = viewLocation[0] - rootLocation[0];
         int dy = viewLocation[1] - rootLocation[1];
+        out.set(dx, dy, dx + blurView.getWidth(), dy + blurView.getHeight());
+    }
+    /**
+     * Area view diperlebar margin over-capture. Selama view masih di dalam area capture
+     * terakhir, area itu dipakai lagi agar hasil lama dan refresh sebagian tetap berlaku.
+     */
+    private void computeCaptureRegion(Rect out) {
+        updateViewRegion(viewRegion);
+        int margin = overCaptureMargin;
+        if (margin > 0 && captureRegion.contains(viewRegion)
+                && captureRegion.width() == viewRegion.width() + 2 * margin
+                && captureRegion.height() == viewRegion.height() + 2 * margin) {
+            out.set(captureRegion);
+        } else {
+            out.set(viewRegion);
+            out.inset(-margin, -margin);
+            // Geser ke dalam root bila bisa, agar margin tidak berisi area kosong di luar layar
+            out.offset(
+                    fitOffset(out.left, out.right, rootViewGroup.getWidth(), margin),
+                    fitOffset(out.top, out.bottom, rootViewGroup.getHeight(), margin));
+        }
+    }
+    private static int fitOffset(int start, int end, int limit, int margin) {
+        int offset = start < 0 ? -start : end > limit ? limit - end : 0;
+        return Math.max(-margin, Math.min(margin, offset));
+    }
+    private void updateCaptureRegion() {
+        computeCaptureRegion(captureRegion);
+    }
+    private float captureScaleX() {
+        return (blurView.getWidth() + 2f * overCaptureMargin) / bitmapWidth;
+    }
+    private float captureScaleY() {
+        return (blurView.getHeight() + 2f * overCaptureMargin) / bitmapHeight;
+    }
+    private void updateCanvasTransform() {
+        float scaleY = captureScaleY() / captureFactor;
+        float scaleX = captureScaleX() / captureFactor;
 
-        float scaleY = (float) blurView.getHeight() / blurBitmap.getHeight();
-        float scaleX = (float) blurView.getWidth() / blurBitmap.getWidth();
-
-        blurCanvas.translate(-dx / scaleX, -dy / scaleY);
+        blurCanvas.translate(-captureRegion.left / scaleX, -captureRegion.top / scaleY);
         blurCanvas.scale(1f / scaleX, 1f / scaleY);
     }
     public void refreshBlur() {
         try {
             if (autoUpdateEnabled && isBlurPrepared) {
+                if (BlurPipeline.supports(blurAlgorithm)) {
+                    refreshBlurAsync();
+                    return;
+                }
+                if (blurBitmap == null) {
+                    // Dilepas oleh onTrimMemory
+                    blurBitmap = BitmapPool.acquire(bitmapWidth, bitmapHeight, blurAlgorithm.getConfig());
+                    blurCanvas.setBitmap(blurBitmap);
+                }
                 blurBitmap.eraseColor(0);
                 blurCanvas.save();
+                updateCaptureRegion();
                 updateCanvasTransform();
-                rootViewGroup.draw(blurCanvas);
+                drawRoot(captureRegion);
                 blurCanvas.restore();
+                dirtyTracker.onRefreshed(captureRegion);
 
                 blurBitmap = blurAlgorithm.blur(blurBitmap, blurRadius);
                 blurAlgorithm.prepare();
@@ -111,6 +231,262 @@ public class BlurViewManager implements BlurRenderer{
             t.printStackTrace();
         }
     }
+    /**
+     * Capture di UI thread, blur diserahkan ke {@link BlurPipeline}.
+     */
+    private void refreshBlurAsync() {
+        Bitmap target = pipeline.obtainBuffer();
+        if (target == null) return;
+
+        target.eraseColor(0);
+        blurCanvas.setBitmap(target);
+        updateCaptureRegion();
+        patchCount = 0;
+        patchShiftX = patchShiftY = 0;
+        boolean patch = prepareShift() || preparePatch();
+        if (patch) {
+            for (int i = 0; i < patchCount; i++) {
+                blurCanvas.save();
+                // Clip di koordinat bitmap capture agar tepi band tepat di batas piksel
+                Rect band = patchBands[i];
+                captureClip.set(band.left * captureFactor, band.top * captureFactor,
+                        band.right * captureFactor, band.bottom * captureFactor);
+                blurCanvas.clipRect(captureClip);
+                updateCanvasTransform();
+                // Band kecil digambar langsung; capture bersama selalu menggambar gabungan penuh
+                drawRegion(patchCaptureRegions[i]);
+                blurCanvas.restore();
+            }
+        } else {
+            blurCanvas.save();
+            updateCanvasTransform();
+            drawRoot(captureRegion);
+            blurCanvas.restore();
+        }
+        dirtyTracker.onRefreshed(captureRegion);
+        if (scrollShiftEnabled) {
+            if (!patch) {
+                scrollShift.setResidual(0f, 0f);
+            }
+            scrollShift.snapshot(captureRegion, excludedViews);
+            dirtyTracker.setShiftContainer(scrollShift.getContainer());
+        }
+
+        if (patch) {
+            submittedRegion.set(captureRegion);
+            pipeline.submitPatch(target, (RegionBlurAlgorithm) blurAlgorithm, blurRadius, patchBands, patchRects,
+                    patchCount, patchShiftX, patchShiftY, captureRegion);
+            return;
+        }
+
+        // Capture identik dengan frame terakhir: hasil blur yang ada (atau sedang dibuat) dipakai
+        long fingerprint = BlurFingerprint.compute(target, BlurFingerprint.stepForRadius(blurRadius * captureFactor));
+        if (captureRegion.equals(submittedRegion) && pipeline.isLatest(fingerprint, blurAlgorithm, blurRadius)) {
+            pipeline.recycle(target);
+            return;
+        }
+        submittedRegion.set(captureRegion);
+        pipeline.submit(target, blurAlgorithm, blurRadius, fingerprint, captureRegion);
+    }
+
+    /**
+     * Siapkan refresh sebagian bila hanya area kecil di belakang view yang berubah:
+     * {@link #patchRects} adalah area dirty (koordinat bitmap) diperlebar jangkauan kernel,
+     * {@link #patchBands} diperlebar sekali lagi sebagai sumber blur-nya.
+     */
+    private boolean preparePatch() {
+        if (blurRadius < 1f || !(blurAlgorithm instanceof RegionBlurAlgorithm)
+                || !pipeline.canPatch(blurAlgorithm, blurRadius)) {
+            return false;
+        }
+        int extent = ((RegionBlurAlgorithm) blurAlgorithm).getKernelExtent(blurRadius);
+        if (extent < 0 || !dirtyTracker.getDirtyRect(dirtyRect)) return false;
+
+        float scaleX = captureScaleX();
+        float scaleY = captureScaleY();
+        // Satu piksel ekstra untuk filter saat capture di-downscale
+        Rect patch = patchRects[0];
+        patch.set(
+                (int) Math.floor((dirtyRect.left - captureRegion.left) / scaleX) - extent - 1,
+                (int) Math.floor((dirtyRect.top - captureRegion.top) / scaleY) - extent - 1,
+                (int) Math.ceil((dirtyRect.right - captureRegion.left) / scaleX) + extent + 1,
+                (int) Math.ceil((dirtyRect.bottom - captureRegion.top) / scaleY) + extent + 1);
+        if (!patch.intersect(0, 0, bitmapWidth, bitmapHeight)) return false;
+        patchCount = 1;
+        return preparePatchBands(extent, scaleX, scaleY);
+    }
+
+    /**
+     * Refresh saat isi hanya bergeser karena scroll: front digeser sejauh piksel bitmap bulat dan
+     * strip yang baru terlihat (ditambah piksel yang blurnya memakai tepi lama) di-blur ulang.
+     * Tepi seberang juga ditambal, karena di sana blur lama menjepit tepi bitmap sedangkan isi
+     * aslinya kini ada di luar area. Sisa pecahan piksel dibawa ke frame berikutnya.
+     */
+    private boolean prepareShift() {
+        if (!scrollShiftEnabled || blurRadius < 1f || !(blurAlgorithm instanceof RegionBlurAlgorithm)
+                || !pipeline.canPatch(blurAlgorithm, blurRadius)
+                || !dirtyTracker.isOnlyContainerChanged() || !scrollShift.getShift(shift)) {
+            return false;
+        }
+        int extent = ((RegionBlurAlgorithm) blurAlgorithm).getKernelExtent(blurRadius);
+        if (extent < 0) return false;
+
+        float scaleX = captureScaleX();
+        float scaleY = captureScaleY();
+        float sx = shift[0] / scaleX;
+        float sy = shift[1] / scaleY;
+        int kx = Math.round(sx);
+        int ky = Math.round(sy);
+        if (kx != 0 && ky != 0) return false;
+
+        int margin = extent + 1;
+        if (kx != 0 || (ky == 0 && Math.abs(sx) > Math.abs(sy))) {
+            int strip = Math.min(bitmapWidth, Math.abs(kx) + margin);
+            int edge = Math.min(bitmapWidth, margin);
+            patchRects[0].set(sx > 0f ? 0 : bitmapWidth - strip, 0, sx > 0f ? strip : bitmapWidth, bitmapHeight);
+            patchRects[1].set(sx > 0f ? bitmapWidth - edge : 0, 0, sx > 0f ? bitmapWidth : edge, bitmapHeight);
+        } else {
+            int strip = Math.min(bitmapHeight, Math.abs(ky) + margin);
+            int edge = Math.min(bitmapHeight, margin);
+            patchRects[0].set(0, sy > 0f ? 0 : bitmapHeight - strip, bitmapWidth, sy > 0f ? strip : bitmapHeight);
+            patchRects[1].set(0, sy > 0f ? bitmapHeight - edge : 0, bitmapWidth, sy > 0f ? bitmapHeight : edge);
+        }
+        patchCount = 2;
+        if (!preparePatchBands(extent, scaleX, scaleY)) return false;
+
+        patchShiftX = kx;
+        patchShiftY = ky;
+        scrollShift.setResidual(shift[0] - kx * scaleX, shift[1] - ky * scaleY);
+        return true;
+    }
+
+    /**
+     * {@link #patchBands} = {@link #patchRects} diperlebar jangkauan kernel, beserta area
+     * capture-nya di koordinat root. Band yang mendekati seluruh bitmap tidak lebih murah dari
+     * blur penuh.
+     */
+    private boolean preparePatchBands(int extent, float scaleX, float scaleY) {
+        long area = 0;
+        for (int i = 0; i < patchCount; i++) {
+            Rect band = patchBands[i];
+            band.set(patchRects[i]);
+            band.inset(-extent, -extent);
+            band.intersect(0, 0, bitmapWidth, bitmapHeight);
+            area += (long) band.width() * band.height();
+
+            patchCaptureRegions[i].set(
+                    captureRegion.left + (int) Math.floor(band.left * scaleX),
+                    captureRegion.top + (int) Math.floor(band.top * scaleY),
+                    captureRegion.left + (int) Math.ceil(band.right * scaleX),
+                    captureRegion.top + (int) Math.ceil(band.bottom * scaleY));
+        }
+        return area * 2 <= (long) bitmapWidth * bitmapHeight;
+    }
+
+    @Override
+    public void onFrameStart(boolean layoutChanged, boolean scrollChanged) {
+        visibility.update();
+        if (overCaptureMargin > 0 && isBlurPrepared) {
+            // View bergerak: gambar potongan lain dari hasil yang sama. Invalidate di sini juga
+            // menandai leluhurnya dirty sehingga dirty tracker tidak menganggapnya perubahan isi.
+            updateViewRegion(viewRegion);
+            if (!viewRegion.equals(drawnRegion)) {
+                blurView.invalidate();
+            }
+        }
+        // Scroll di dalam container dideteksi sendiri oleh ScrollShiftDetector
+        if (layoutChanged || (scrollChanged && scrollShift.getContainer() == null)) {
+            dirtyTracker.invalidate();
+        }
+        dirtyTracker.update(excludedViews);
+        if (scrollShiftEnabled) {
+            scrollShift.update();
+        }
+    }
+
+    @Override
+    public void onCaptureFrame() {
+        if (!visibility.isVisible()) return;
+        if (dirtyTracker.isEnabled()) {
+            // Invalidate dari onBlurReady hanya mengotori blur view sendiri, tidak terhitung
+            skipNextRefresh = false;
+            if (!dirtyTracker.isPending()) return;
+        } else if (skipNextRefresh) {
+            // Frame ini dipicu oleh onBlurReady sendiri; capture ulang hanya mengulang blur yang sama,
+            // kecuali ada view lain yang juga di-invalidate di frame yang sama
+            skipNextRefresh = false;
+            if (!dirtyTracker.hasDetectedChanges()) return;
+        }
+        // Frame yang dilewati scheduler tetap menggambar hasil blur sebelumnya
+        if (refreshScheduler.shouldRefresh()) {
+            refreshBlur();
+        }
+    }
+
+    private void drawRoot(Rect region) {
+        if (captureCoordinator != null && captureCoordinator.drawCapture(this, blurCanvas)) return;
+        drawRegion(region);
+    }
+
+    private void drawRegion(Rect region) {
+        if (regionCaptureEnabled) {
+            RegionCaptureDrawer.draw(rootViewGroup, blurCanvas, region, excludedViews);
+        } else {
+            rootViewGroup.draw(blurCanvas);
+        }
+    }
+
+    public void setRegionCaptureEnabled(boolean enabled) {
+        this.regionCaptureEnabled = enabled;
+        dirtyTracker.invalidate();
+    }
+
+    @Override
+    public boolean isRegionCaptureEnabled() {
+        return regionCaptureEnabled;
+    }
+
+    /**
+     * View yang dilewati saat capture, selain yang ditandai dengan
+     * {@link RegionCaptureDrawer#setExcluded(View, boolean)}.
+     */
+    public void setExcludedViews(Set<View> excludedViews) {
+        this.excludedViews = excludedViews != null ? excludedViews : Collections.emptySet();
+        dirtyTracker.invalidate();
+    }
+
+    @Override
+    public Set<View> getExcludedViews() {
+        return excludedViews;
+    }
+
+    @Override
+    public boolean getCaptureRegion(Rect out) {
+        computeCaptureRegion(out);
+        return blurView.getWidth() > 0 && blurView.getHeight() > 0;
+    }
+
+    @Override
+    public float getCaptureScale() {
+        // View yang tidak terlihat tidak ikut memperbesar capture bersama
+        return isBlurPrepared && bitmapWidth > 0 && visibility.isVisible() ? captureScaleX() / captureFactor : 0f;
+    }
+
+    private void onVisibilityChanged(boolean visible) {
+        if (visible) {
+            // Perubahan selama tersembunyi tidak terlacak; mulai lagi dengan capture penuh
+            dirtyTracker.invalidate();
+        } else {
+            refreshScheduler.cancel();
+            pipeline.cancel();
+        }
+    }
+
+    private void onBlurReady() {
+        skipNextRefresh = true;
+        blurView.invalidate();
+    }
+
     @Override
     public BlurRenderer setOverlayColor(int color) {
         if (this.overlayColor != color) {
@@ -123,22 +499,148 @@ public class BlurViewManager implements BlurRenderer{
     @Override
     public BlurRenderer enableBlur(boolean enable) {
         this.autoUpdateEnabled = enable;
+        dirtyTracker.invalidate();
         this.blurView.invalidate();
         return this;
     }
 
     @Override
     public BlurRenderer enableAutoUpdate(boolean enable) {
-        ViewTreeObserver observer = rootViewGroup.getViewTreeObserver();
-        if (observer != null && observer.isAlive()) {
-            observer.removeOnPreDrawListener(preDrawListener);
-            if (enable) {
-                observer.addOnPreDrawListener(preDrawListener);
+        autoUpdateRequested = enable;
+        updateRegistration();
+        return this;
+    }
+
+    /**
+     * Dipanggil saat host lifecycle START ({@code true}) atau STOP. Selama berhenti view lepas
+     * dari pre-draw bersama, jadi tidak ada capture maupun blur; auto update kembali saat START.
+     */
+    public void setHostStarted(boolean started) {
+        if (hostStarted == started) return;
+        hostStarted = started;
+        updateRegistration();
+        if (started) {
+            blurView.invalidate();
+        }
+    }
+
+    private void updateRegistration() {
+        if (autoUpdateRequested && hostStarted) {
+            BlurCaptureCoordinator coordinator = BlurCaptureCoordinator.obtain(rootViewGroup);
+            if (captureCoordinator != null && captureCoordinator != coordinator) {
+                captureCoordinator.unregister(this);
+            }
+            captureCoordinator = coordinator;
+            coordinator.register(this);
+            visibility.attachWindowFocusListener();
+            dirtyTracker.invalidate();
+        } else {
+            visibility.detachWindowFocusListener();
+            if (captureCoordinator != null) {
+                captureCoordinator.unregister(this);
+                captureCoordinator = null;
             }
+            refreshScheduler.cancel();
+            pipeline.cancel();
         }
+    }
+
+    @Override
+    public BlurRenderer setMaxRefreshRate(float refreshRate) {
+        refreshScheduler.setMaxRefreshRate(refreshRate);
         return this;
     }
 
+    /**
+     * Refresh hanya saat isi di belakang view berubah; {@code false} untuk refresh setiap frame.
+     */
+    public void setDirtyTrackingEnabled(boolean enabled) {
+        dirtyTracker.setEnabled(enabled);
+    }
+
+    /**
+     * Saat isi di belakang view di-scroll, geser hasil blur lama dan blur hanya strip yang baru
+     * terlihat. Butuh dirty tracking dan algoritma CPU dengan kernel terbatas.
+     */
+    public void setScrollShiftEnabled(boolean enabled) {
+        this.scrollShiftEnabled = enabled;
+        if (!enabled) {
+            scrollShift.reset();
+            dirtyTracker.setShiftContainer(null);
+        }
+        dirtyTracker.invalidate();
+    }
+
+    /**
+     * Hentikan refresh selama window tidak fokus (misalnya tertutup dialog). Matikan untuk
+     * mode multi-window, di mana window tanpa fokus tetap terlihat.
+     */
+    public void setPauseWhenUnfocused(boolean pause) {
+        visibility.setPauseWhenUnfocused(pause);
+        visibility.update();
+    }
+
+    /**
+     * Capture {@code factor} kali lebih tajam dari bitmap blur lalu downscale box filter di dalam
+     * kernel. Hanya untuk {@link DownsampleBlurAlgorithm}; algoritma lain tetap capture langsung.
+     */
+    public void setSupersampleFactor(int factor) {
+        factor = Math.max(1, factor);
+        if (supersampleFactor == factor) return;
+        supersampleFactor = factor;
+        if (isBlurPrepared) {
+            update();
+        }
+    }
+
+    /**
+     * Capture dan blur {@code margin} piksel di sekitar view agar gerakan view di dalam margin
+     * tidak butuh capture ulang. 0 untuk mematikan.
+     */
+    public void setOverCaptureMargin(int margin) {
+        margin = Math.max(0, margin);
+        if (overCaptureMargin == margin) return;
+        overCaptureMargin = margin;
+        dirtyTracker.setCaptureMargin(margin);
+        if (isBlurPrepared) {
+            update();
+        }
+    }
+
+    /**
+     * Lepas semua bitmap dan buffer kerja tanpa menghancurkan renderer, misalnya saat host
+     * DESTROY. Semuanya dibangun ulang lewat capture penuh pada refresh berikutnya.
+     */
+    public void releaseResources() {
+        onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+    }
+
+    /**
+     * Lepas buffer kerja ({@code RUNNING_LOW} ke atas) dan hasil blur ({@code UI_HIDDEN} ke
+     * atas). Hasil yang dibuang dibangun ulang lewat capture penuh saat view digambar lagi.
+     */
+    @Override
+    public void onTrimMemory(int level) {
+        boolean async = BlurPipeline.supports(blurAlgorithm);
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW && async) {
+            pipeline.releaseScratch(blurAlgorithm);
+        }
+        if (level < ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) return;
+
+        pipeline.releaseFrames();
+        submittedRegion.setEmpty();
+        BitmapPool.release(blurBitmap);
+        blurBitmap = null;
+        if (!async) {
+            blurAlgorithm.releaseBuffers();
+        }
+        if (captureCoordinator != null) {
+            captureCoordinator.releaseCapture();
+        }
+        dirtyTracker.invalidate();
+        blurView.invalidate();
+    }
+
     @Override
     public void update() {
         updateBitmapAndCanvas(blurView.getMeasuredWidth(), blurView.getMeasuredHeight());
@@ -147,7 +649,12 @@ public class BlurViewManager implements BlurRenderer{
     @Override
     public void destroy() {
         enableAutoUpdate(false);
-        blurAlgorithm.destroy();
+        pipeline.retire(blurAlgorithm);
+        pipeline.release();
+        pipeline.releaseScratch(null);
+        BitmapPool.release(blurBitmap);
+        blurBitmap = null;
+        BlurMemoryTrimmer.unregister(this);
         isBlurPrepared = false;
     }
 
@@ -156,13 +663,28 @@ public class BlurViewManager implements BlurRenderer{
         if (!autoUpdateEnabled || !isBlurPrepared) return true;
         if (canvas instanceof BlurCanvas) return false;
 
-        float scaleY = (float) blurView.getHeight() / blurBitmap.getHeight();
-        float scaleX = (float) blurView.getWidth() / blurBitmap.getWidth();
+        // Mode asinkron: gambar front buffer terakhir, diskalakan bila masih berukuran lama;
+        // kosong hanya sampai frame pertama selesai
+        Bitmap bitmap = BlurPipeline.supports(blurAlgorithm) ? pipeline.getFrontBitmap() : blurBitmap;
+        if (bitmap != null) {
+            float scaleY = (blurView.getHeight() + 2f * overCaptureMargin) / bitmap.getHeight();
+            float scaleX = (blurView.getWidth() + 2f * overCaptureMargin) / bitmap.getWidth();
 
-        canvas.save();
-        canvas.scale(scaleX, scaleY);
-        blurAlgorithm.drawBlurred(canvas, blurBitmap);
-        canvas.restore();
+            canvas.save();
+            if (overCaptureMargin > 0) {
+                Rect region = bitmap == blurBitmap ? captureRegion : pipeline.getFrontRegion();
+                updateViewRegion(drawnRegion);
+                int margin = 2 * overCaptureMargin;
+                // View di luar margin (capture baru belum siap): tepi terdekat, tetap menutup view
+                int dx = region != null ? Math.max(-margin, Math.min(0, region.left - drawnRegion.left)) : -overCaptureMargin;
+                int dy = region != null ? Math.max(-margin, Math.min(0, region.top - drawnRegion.top)) : -overCaptureMargin;
+                canvas.clipRect(0, 0, blurView.getWidth(), blurView.getHeight());
+                canvas.translate(dx, dy);
+            }
+            canvas.scale(scaleX, scaleY);
+            blurAlgorithm.drawBlurred(canvas, bitmap);
+            canvas.restore();
+        }
 
         if (overlayColor != 0) {
             canvas.drawColor(overlayColor);
@@ -173,8 +695,28 @@ public class BlurViewManager implements BlurRenderer{
 
     @Override
     public BlurRenderer setBlurRadius(float radius) {
+        if (this.blurRadius != radius) {
+            dirtyTracker.invalidate();
+        }
         this.blurRadius = radius;
         return this;
     }
 
+    public BlurAlgorithm getBlurAlgorithm() {
+        return blurAlgorithm;
+    }
+
+    /**
+     * Ganti algoritma blur; algoritma lama dihancurkan dan bitmap dibuat ulang.
+     */
+    public void setBlurAlgorithm(BlurAlgorithm blurAlgorithm) {
+        if (this.blurAlgorithm == blurAlgorithm) return;
+        pipeline.retire(this.blurAlgorithm);
+        this.blurAlgorithm = blurAlgorithm;
+        if (blurAlgorithm instanceof RenderEffectBlurAlgorithm) {
+            ((RenderEffectBlurAlgorithm) blurAlgorithm).setContext(blurView.getContext());
+        }
+        update();
+    }
+
 }
@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ * Copyright (c) 2024 Muhamad Jaelani
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.nad.blurview.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+/**
+ * Blur CPU murah dengan tiga box blur per sumbu ({@link BoxBlurKernel}). Biaya per piksel
+ * tidak bergantung pada radius, cocok untuk perangkat kelas bawah.
+ */
+public class BoxBlurAlgorithm implements RegionBlurAlgorithm {
+    public final Paint blurPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private final BoxBlurKernel kernel = new BoxBlurKernel();
+    private int[] pixels;
+    private final int[] boxes = new int[3];
+
+    @Override
+    public Bitmap.Config getConfig() {
+        return Bitmap.Config.ARGB_8888;
+    }
+
+    @Override
+    public void prepare() {
+
+    }
+
+    @Override
+    public Bitmap blur(Bitmap bitmap, float radius) {
+        if (radius < 1f || bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()) return bitmap;
+
+        int w = bitmap.getWidth();
+        int h = bitmap.getHeight();
+        if (pixels == null || pixels.length < w * h) {
+            pixels = new int[w * h];
+        }
+
+        bitmap.getPixels(pixels, 0, w, 0, 0, w, h);
+        kernel.blur(pixels, 0, w, h, w, radius);
+        bitmap.setPixels(pixels, 0, w, 0, 0, w, h);
+        return bitmap;
+    }
+
+    @Override
+    public int getKernelExtent(float radius) {
+        // Tiga box berturut-turut: jangkauan adalah jumlah radius ketiganya
+        BoxBlurKernel.boxRadii(Math.max(1f, Math.min(radius, BoxBlurKernel.MAX_RADIUS)), boxes);
+        return boxes[0] + boxes[1] + boxes[2];
+    }
+
+    @Override
+    public void blurPixels(int[] pixels, int offset, int width, int height, int stride, float radius) {
+        kernel.blur(pixels, offset, width, height, stride, radius);
+    }
+
+    @Override
+    public void drawBlurred(Canvas canvas, Bitmap bitmap) {
+        canvas.drawBitmap(bitmap, 0f, 0f, blurPaint);
+    }
+
+    @Override
+    public void clear() {
+
+    }
+
+    @Override
+    public void destroy() {
+        releaseBuffers();
+    }
+
+    @Override
+    public void releaseBuffers() {
+        kernel.release();
+        pixels = null;
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * MIT License
+ * Copyright (c) 2024 Muhamad Jaelani
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.nad.blurview.utils;
+
+/**
+ * Aproksimasi Gaussian dengan tiga box blur berurutan per sumbu. Setiap pass memakai
+ * running sum, jadi biayanya O(1) per piksel berapa pun radiusnya dan tidak butuh tabel.
+ * Lebar box dipilih agar variansnya sama dengan stack blur ber-radius sama, sehingga
+ * hasilnya bisa menggantikan {@link StackBlurKernel} tanpa perubahan tampilan yang berarti.
+ */
+public final class BoxBlurKernel {
+
+    public static final int MAX_RADIUS = PyramidBlurKernel.MAX_RADIUS;
+
+    private static final int PASSES = 3;
+
+    private final int[] boxes = new int[PASSES];
+    private int[] scratch, lineA, lineR, lineG, lineB;
+    private int[][] channels;
+    private int[] sumR, sumG, sumB;
+
+    /**
+     * Blur {@code pixels} in-place. Radius pecahan didukung.
+     */
+    public void blur(int[] pixels, int offset, int width, int height, int stride, float radius) {
+        if (width <= 0 || height <= 0) return;
+        if (stride < width || offset < 0 || offset + (long) (height - 1) * stride + width > pixels.length) {
+            throw new IllegalArgumentException("Pixel buffer too small for " + width + "x" + height);
+        }
+        boxRadii(Math.max(1f, Math.min(radius, MAX_RADIUS)), boxes);
+        ensureCapacity(width, height);
+
+        horizontalPasses(pixels, offset, stride, width, height);
+
+        // Pass vertikal diproses per baris dengan akumulator per kolom agar akses memori berurutan
+        boxColumns(pixels, offset, stride, scratch, 0, width, width, height, boxes[0]);
+        boxColumns(scratch, 0, width, pixels, offset, stride, width, height, boxes[1]);
+        boxColumns(pixels, offset, stride, scratch, 0, width, width, height, boxes[2]);
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(scratch, y * width, pixels, offset + y * stride, width);
+        }
+    }
+
+    public void release() {
+        scratch = lineA = lineR = lineG = lineB = null;
+        channels = null;
+        sumR = sumG = sumB = null;
+    }
+
+    /**
+     * Radius tiga box yang variansnya menyamai stack blur ber-radius {@code radius}
+     * (sigma^2 = r(r + 2) / 6). Lihat "Fast Almost-Gaussian Filtering" (Kovesi).
+     */
+    static void boxRadii(float radius, int[] out) {
+        double variance = radius * (radius + 2.0) / 6.0;
+        int n = out.length;
+        int wl = (int) Math.floor(Math.sqrt(12.0 * variance / n + 1.0));
+        if (wl % 2 == 0) wl--;
+        wl = Math.max(1, wl);
+        int wu = wl + 2;
+        int m = (int) Math.round((12.0 * variance - n * wl * wl - 4.0 * n * wl - 3.0 * n) / (-4.0 * wl - 4.0));
+        for (int i = 0; i < n; i++) {
+            out[i] = ((i < m ? wl : wu) - 1) / 2;
+        }
+    }
+
+    /**
+     * Tiga pass horizontal per baris. Kanal dibongkar sekali ke line terpisah, lalu ketiga
+     * pass menjumlah tanpa normalisasi (nilai maksimal 255 * d0 * d1 * d2, jauh di bawah
+     * 2^31) dan hanya dibagi sekali di akhir, sehingga pembulatan juga hanya sekali.
+     */
+    private void horizontalPasses(int[] pixels, int offset, int stride, int width, int height) {
+        int[] r = lineR, g = lineG, b = lineB, tmp = lineA;
+        int d0 = boxes[0] * 2 + 1, d1 = boxes[1] * 2 + 1, d2 = boxes[2] * 2 + 1;
+        long divisor = (long) d0 * d1 * d2;
+        int shift = reciprocalShift(divisor);
+        long mul = ((1L << shift) + divisor - 1) / divisor;
+        long half = divisor >> 1;
+
+        for (int y = 0; y < height; y++) {
+            int row = offset + y * stride;
+            for (int x = 0; x < width; x++) {
+                int p = pixels[row + x];
+                r[x] = (p >> 16) & 0xff;
+                g[x] = (p >> 8) & 0xff;
+                b[x] = p & 0xff;
+            }
+            for (int[] channel : channels) {
+                sumLine(channel, tmp, width, boxes[0]);
+                sumLine(tmp, channel, width, boxes[1]);
+                sumLine(channel, tmp, width, boxes[2]);
+                System.arraycopy(tmp, 0, channel, 0, width);
+            }
+            for (int x = 0; x < width; x++) {
+                pixels[row + x] = 0xff000000
+                        | (int) (((r[x] + half) * mul) >>> shift) << 16
+                        | (int) (((g[x] + half) * mul) >>> shift) << 8
+                        | (int) (((b[x] + half) * mul) >>> shift);
+            }
+        }
+    }
+
+    /**
+     * Running sum selebar {@code 2 * radius + 1} dengan tepi dijepit, tanpa pembagian.
+     */
+    private static void sumLine(int[] src, int[] dst, int length, int radius) {
+        int last = length - 1;
+        int sum = 0;
+        for (int i = -radius; i <= radius; i++) {
+            sum += src[Math.max(0, Math.min(last, i))];
+        }
+
+        // Tiga segmen agar loop tengah tidak perlu clamp per piksel
+        int leftEnd = Math.min(radius, length);
+        int rightStart = Math.max(leftEnd, length - radius - 1);
+        int first = src[0], lastValue = src[last];
+        int x = 0;
+        for (; x < leftEnd; x++) {
+            dst[x] = sum;
+            sum += src[Math.min(x + radius + 1, last)] - first;
+        }
+        for (; x < rightStart; x++) {
+            dst[x] = sum;
+            sum += src[x + radius + 1] - src[x - radius];
+        }
+        for (; x < length; x++) {
+            dst[x] = sum;
+            sum += lastValue - src[Math.max(x - radius, 0)];
+        }
+    }
+
+    /**
+     * Shift untuk pengali reciprocal yang eksak bagi pembilang &lt; 256 * divisor:
+     * galat pengali (&lt; 1) dikali pembilang harus tetap di bawah 2^shift.
+     */
+    private static int reciprocalShift(long divisor) {
+        int bits = 64 - Long.numberOfLeadingZeros(divisor);
+        return Math.min(54, 9 + 2 * bits);
+    }
+
+    private void boxColumns(int[] src, int srcOffset, int srcStride,
+                            int[] dst, int dstOffset, int dstStride,
+                            int width, int height, int radius) {
+        if (radius == 0) {
+            for (int y = 0; y < height; y++) {
+                System.arraycopy(src, srcOffset + y * srcStride, dst, dstOffset + y * dstStride, width);
+            }
+            return;
+        }
+        int size = radius * 2 + 1;
+        long mul = StackBlurKernel.reciprocal(size);
+        int half = size >> 1;
+        int last = height - 1;
+        int[] sr = sumR, sg = sumG, sb = sumB;
+
+        for (int x = 0; x < width; x++) {
+            sr[x] = sg[x] = sb[x] = 0;
+        }
+        for (int i = -radius; i <= radius; i++) {
+            int row = srcOffset + Math.max(0, Math.min(last, i)) * srcStride;
+            for (int x = 0; x < width; x++) {
+                int p = src[row + x];
+                sr[x] += (p >> 16) & 0xff;
+                sg[x] += (p >> 8) & 0xff;
+                sb[x] += p & 0xff;
+            }
+        }
+
+        for (int y = 0; y < height; y++) {
+            int out = dstOffset + y * dstStride;
+            int inRow = srcOffset + Math.min(y + radius + 1, last) * srcStride;
+            int outRow = srcOffset + Math.max(y - radius, 0) * srcStride;
+            for (int x = 0; x < width; x++) {
+                dst[out + x] = 0xff000000
+                        | (int) (((sr[x] + half) * mul) >>> 32) << 16
+                        | (int) (((sg[x] + half) * mul) >>> 32) << 8
+                        | (int) (((sb[x] + half) * mul) >>> 32);
+
+                int in = src[inRow + x];
+                int old = src[outRow + x];
+                sr[x] += ((in >> 16) & 0xff) - ((old >> 16) & 0xff);
+                sg[x] += ((in >> 8) & 0xff) - ((old >> 8) & 0xff);
+                sb[x] += (in & 0xff) - (old & 0xff);
+            }
+        }
+    }
+
+    private void ensureCapacity(int width, int height) {
+        if (scratch == null || scratch.length < width * height) {
+            scratch = new int[width * height];
+        }
+        if (lineA == null || lineA.length < width) {
+            lineA = new int[width];
+            lineR = new int[width];
+            lineG = new int[width];
+            lineB = new int[width];
+            channels = new int[][]{lineR, lineG, lineB};
+        }
+        if (sumR == null || sumR.length < width) {
+            sumR = new int[width];
+            sumG = new int[width];
+            sumB = new int[width];
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * MIT License
+ * Copyright (c) 2024 Muhamad Jaelani
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.nad.blurview.utils;
+
+import com.nad.blurview.config.BlurConfig;
+
+/**
+ * Membuat {@link BlurAlgorithm} CPU sesuai konstanta {@code BlurConfig.CPU_ALGORITHM_*}.
+ */
+public final class CpuBlurAlgorithms {
+
+    private CpuBlurAlgorithms() {
+    }
+
+    public static BlurAlgorithm create(int type, boolean largeRadiusEnabled) {
+        switch (type) {
+            case BlurConfig.CPU_ALGORITHM_PACKED_STACK:
+                return new PackedStackBlurAlgorithm();
+            case BlurConfig.CPU_ALGORITHM_BOX:
+                return new BoxBlurAlgorithm();
+            case BlurConfig.CPU_ALGORITHM_GAUSSIAN_IIR:
+                return new GaussianIirBlurAlgorithm();
+            case BlurConfig.CPU_ALGORITHM_DUAL_KAWASE:
+                return new DualKawaseBlurAlgorithm();
+            case BlurConfig.CPU_ALGORITHM_STACK:
+            default:
+                return new StackBlurAlgorithm().setLargeRadiusEnabled(largeRadiusEnabled);
+        }
+    }
+}
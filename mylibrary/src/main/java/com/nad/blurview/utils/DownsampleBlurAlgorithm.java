@@ -0,0 +1,40 @@
+/*
+ * MIT License
+ * Copyright (c) 2024 Muhamad Jaelani
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.nad.blurview.utils;
+
+/**
+ * {@link BlurAlgorithm} CPU yang bisa men-downscale sumber dengan box filter
+ * {@code factor x factor} sambil mem-blur, tanpa bitmap perantara. Dengan ini capture bisa
+ * diambil beresolusi lebih tinggi dari bitmap hasil blur, lihat
+ * {@link BlurPipeline#resize(int, int, int, android.graphics.Bitmap.Config)}.
+ */
+public interface DownsampleBlurAlgorithm extends BlurAlgorithm {
+
+    /**
+     * Downscale {@code src} lalu blur ke {@code dst}, berukuran
+     * {@link StackBlurKernel#downsampledSize}(srcWidth/srcHeight, factor). {@code radius} dalam
+     * piksel {@code dst}. Dipanggil dari thread latar, tidak bersamaan dengan {@link #blur}.
+     */
+    void blurPixelsDownsampled(int[] src, int srcOffset, int srcWidth, int srcHeight, int srcStride,
+                               int factor, int[] dst, int dstOffset, int dstStride, float radius);
+}
@@ -0,0 +1,261 @@
+/*
+ * MIT License
+ * Copyright (c) 2024 Muhamad Jaelani
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.nad.blurview.utils;
+
+/**
+ * Dual filter (Kawase down/up sampling) di CPU. Setiap iterasi memperkecil gambar dua kali
+ * dengan filter 13 tap lalu memperbesarnya kembali dengan filter tenda, sehingga kerja per
+ * piksel hampir tidak bertambah untuk blur yang sangat lebar. Keempat kanal diproses sekaligus
+ * sebagai lane 16-bit di dalam dua int.
+ * <p>
+ * Radius dipetakan ke jumlah iterasi pecahan; bagian pecahannya dicampur di level terdalam
+ * sehingga animasi radius tetap mulus.
+ */
+public final class DualKawaseBlurKernel {
+
+    public static final int MAX_RADIUS = PyramidBlurKernel.MAX_RADIUS;
+
+    private static final int MAX_LEVELS = 8;
+    private static final int MASK = 0x00ff00ff;
+
+    // Sigma efektif (piksel level 0) setelah n iterasi, diukur dari respons impuls
+    private static final float[] SIGMA = {0f, 1.87f, 4.18f, 8.57f, 17.2f, 34.4f, 68.8f, 137.6f, 275.2f};
+
+    private final int[] levelWidth = new int[MAX_LEVELS + 1];
+    private final int[] levelHeight = new int[MAX_LEVELS + 1];
+    private final int[] levelOffset = new int[MAX_LEVELS + 1];
+    private int[] levels, blend, rbOuter, agOuter, rbInner, agInner;
+
+    /**
+     * Blur {@code pixels} in-place.
+     */
+    public void blur(int[] pixels, int offset, int width, int height, int stride, float radius) {
+        if (width <= 0 || height <= 0) return;
+        if (stride < width || offset < 0 || offset + (long) (height - 1) * stride + width > pixels.length) {
+            throw new IllegalArgumentException("Pixel buffer too small for " + width + "x" + height);
+        }
+        radius = Math.max(1f, Math.min(radius, MAX_RADIUS));
+
+        int maxLevel = 0;
+        int total = 0;
+        levelWidth[0] = width;
+        levelHeight[0] = height;
+        while (maxLevel < MAX_LEVELS && Math.min(levelWidth[maxLevel], levelHeight[maxLevel]) >= 2) {
+            int w = (levelWidth[maxLevel] + 1) >> 1, h = (levelHeight[maxLevel] + 1) >> 1;
+            maxLevel++;
+            levelWidth[maxLevel] = w;
+            levelHeight[maxLevel] = h;
+            levelOffset[maxLevel] = total;
+            total += w * h;
+        }
+
+        float iterations = Math.min(iterations((float) Math.sqrt(radius * (radius + 2.0) / 6.0)), maxLevel);
+        int n = (int) iterations;
+        int fraction = Math.round((iterations - n) * 256f);
+        if (fraction == 256) {
+            n++;
+            fraction = 0;
+        }
+        int deepest = fraction > 0 ? n + 1 : n;
+        if (deepest == 0) return;
+        ensureCapacity(width, total, levelWidth[n] * levelHeight[n], fraction > 0);
+
+        downsample(pixels, offset, stride, width, height, levels, levelOffset[1], levelWidth[1], levelHeight[1]);
+        for (int k = 2; k <= deepest; k++) {
+            downsample(levels, levelOffset[k - 1], levelWidth[k - 1], levelWidth[k - 1], levelHeight[k - 1],
+                    levels, levelOffset[k], levelWidth[k], levelHeight[k]);
+        }
+
+        if (fraction > 0) {
+            // Campur level n dengan hasil satu iterasi tambahan
+            int w = levelWidth[n], h = levelHeight[n];
+            upsample(levels, levelOffset[n + 1], levelWidth[n + 1], levelHeight[n + 1], blend, 0, w, w, h);
+            if (n == 0) {
+                mix(blend, pixels, offset, stride, w, h, fraction);
+            } else {
+                mix(blend, levels, levelOffset[n], w, w, h, fraction);
+            }
+        }
+
+        for (int k = n; k >= 2; k--) {
+            upsample(levels, levelOffset[k], levelWidth[k], levelHeight[k],
+                    levels, levelOffset[k - 1], levelWidth[k - 1], levelWidth[k - 1], levelHeight[k - 1]);
+        }
+        if (n >= 1) {
+            upsample(levels, levelOffset[1], levelWidth[1], levelHeight[1], pixels, offset, stride, width, height);
+        }
+    }
+
+    public void release() {
+        levels = blend = null;
+        rbOuter = agOuter = rbInner = agInner = null;
+    }
+
+    /**
+     * Jumlah iterasi (boleh pecahan) yang menghasilkan {@code sigma}. Campuran dua hasil
+     * menjumlahkan varians, jadi pecahannya diinterpolasi pada sigma kuadrat.
+     */
+    static float iterations(float sigma) {
+        for (int n = 0; n < SIGMA.length - 1; n++) {
+            float low = SIGMA[n] * SIGMA[n], high = SIGMA[n + 1] * SIGMA[n + 1];
+            if (sigma * sigma <= high) {
+                return n + Math.max(0f, sigma * sigma - low) / (high - low);
+            }
+        }
+        return SIGMA.length - 1;
+    }
+
+    /**
+     * Filter turun dual Kawase: pusat 2x2 berbobot 4 ditambah empat sampel diagonal,
+     * setara bobot 4x4 {1,1,1,1 / 1,5,5,1 / 1,5,5,1 / 1,1,1,1} / 32.
+     */
+    private void downsample(int[] src, int srcOffset, int srcStride, int sw, int sh,
+                            int[] dst, int dstOffset, int dw, int dh) {
+        int[] rbP = rbOuter, agP = agOuter, rbQ = rbInner, agQ = agInner;
+        for (int y = 0; y < dh; y++) {
+            int r0 = srcOffset + Math.max(2 * y - 1, 0) * srcStride;
+            int r1 = srcOffset + Math.min(2 * y, sh - 1) * srcStride;
+            int r2 = srcOffset + Math.min(2 * y + 1, sh - 1) * srcStride;
+            int r3 = srcOffset + Math.min(2 * y + 2, sh - 1) * srcStride;
+            // P = kolom luar (1,1,1,1), Q = kolom dalam (1,5,5,1); indeks digeser satu untuk tepi kiri
+            for (int i = 0; i < sw; i++) {
+                int a = src[r0 + i], b = src[r1 + i], c = src[r2 + i], d = src[r3 + i];
+                int rbA = (a & MASK) + (d & MASK), rbB = (b & MASK) + (c & MASK);
+                int agA = ((a >>> 8) & MASK) + ((d >>> 8) & MASK), agB = ((b >>> 8) & MASK) + ((c >>> 8) & MASK);
+                rbP[i + 1] = rbA + rbB;
+                agP[i + 1] = agA + agB;
+                rbQ[i + 1] = rbA + 5 * rbB;
+                agQ[i + 1] = agA + 5 * agB;
+            }
+            rbP[0] = rbP[1];
+            agP[0] = agP[1];
+            rbP[sw + 1] = rbP[sw + 2] = rbP[sw];
+            agP[sw + 1] = agP[sw + 2] = agP[sw];
+            rbQ[sw + 1] = rbQ[sw];
+            agQ[sw + 1] = agQ[sw];
+
+            int out = dstOffset + y * dw;
+            for (int x = 0, j = 0; x < dw; x++, j += 2) {
+                int rb = rbP[j] + rbQ[j + 1] + rbQ[j + 2] + rbP[j + 3] + 0x00100010;
+                int ag = agP[j] + agQ[j + 1] + agQ[j + 2] + agP[j + 3] + 0x00100010;
+                dst[out + x] = ((rb >>> 5) & MASK) | (((ag >>> 5) & MASK) << 8);
+            }
+        }
+    }
+
+    /**
+     * Filter naik: interpolasi bilinear 2x dikonvolusi tenda {1,2,1}, terpisah per sumbu
+     * dengan bobot {1,5,7,3} / 16 (piksel genap) dan {3,7,5,1} / 16 (piksel ganjil).
+     */
+    private void upsample(int[] src, int srcOffset, int sw, int sh,
+                          int[] dst, int dstOffset, int dstStride, int dw, int dh) {
+        int[] rbV = rbOuter, agV = agOuter;
+        for (int y = 0; y < dh; y++) {
+            int half = y >> 1;
+            int r0, r1, r2, r3, w0, w1, w2, w3;
+            if ((y & 1) == 0) {
+                r0 = half - 2;
+                w0 = 1;
+                w1 = 5;
+                w2 = 7;
+                w3 = 3;
+            } else {
+                r0 = half - 1;
+                w0 = 3;
+                w1 = 7;
+                w2 = 5;
+                w3 = 1;
+            }
+            r1 = srcOffset + clamp(r0 + 1, sh) * sw;
+            r2 = srcOffset + clamp(r0 + 2, sh) * sw;
+            r3 = srcOffset + clamp(r0 + 3, sh) * sw;
+            r0 = srcOffset + clamp(r0, sh) * sw;
+
+            // Indeks digeser dua untuk tepi kiri
+            for (int i = 0; i < sw; i++) {
+                int a = src[r0 + i], b = src[r1 + i], c = src[r2 + i], d = src[r3 + i];
+                rbV[i + 2] = w0 * (a & MASK) + w1 * (b & MASK) + w2 * (c & MASK) + w3 * (d & MASK);
+                agV[i + 2] = w0 * ((a >>> 8) & MASK) + w1 * ((b >>> 8) & MASK)
+                        + w2 * ((c >>> 8) & MASK) + w3 * ((d >>> 8) & MASK);
+            }
+            rbV[0] = rbV[1] = rbV[2];
+            agV[0] = agV[1] = agV[2];
+            rbV[sw + 2] = rbV[sw + 3] = rbV[sw + 1];
+            agV[sw + 2] = agV[sw + 3] = agV[sw + 1];
+
+            // Sepasang piksel genap/ganjil per sampel sumber; piksel terakhir ganjil ditangani terpisah
+            int out = dstOffset + y * dstStride;
+            int pairs = dw >> 1;
+            for (int j = 0; j < pairs; j++, out += 2) {
+                int rb0 = rbV[j], rb1 = rbV[j + 1], rb2 = rbV[j + 2], rb3 = rbV[j + 3], rb4 = rbV[j + 4];
+                int ag0 = agV[j], ag1 = agV[j + 1], ag2 = agV[j + 2], ag3 = agV[j + 3], ag4 = agV[j + 4];
+                int rb = rb0 + 5 * rb1 + 7 * rb2 + 3 * rb3 + 0x00800080;
+                int ag = ag0 + 5 * ag1 + 7 * ag2 + 3 * ag3 + 0x00800080;
+                dst[out] = ((rb >>> 8) & MASK) | (((ag >>> 8) & MASK) << 8);
+                rb = 3 * rb1 + 7 * rb2 + 5 * rb3 + rb4 + 0x00800080;
+                ag = 3 * ag1 + 7 * ag2 + 5 * ag3 + ag4 + 0x00800080;
+                dst[out + 1] = ((rb >>> 8) & MASK) | (((ag >>> 8) & MASK) << 8);
+            }
+            if ((dw & 1) != 0) {
+                int j = pairs;
+                int rb = rbV[j] + 5 * rbV[j + 1] + 7 * rbV[j + 2] + 3 * rbV[j + 3] + 0x00800080;
+                int ag = agV[j] + 5 * agV[j + 1] + 7 * agV[j + 2] + 3 * agV[j + 3] + 0x00800080;
+                dst[out] = ((rb >>> 8) & MASK) | (((ag >>> 8) & MASK) << 8);
+            }
+        }
+    }
+
+    /**
+     * {@code dst = dst + (src - dst) * fraction / 256} per kanal.
+     */
+    private static void mix(int[] src, int[] dst, int dstOffset, int dstStride, int width, int height, int fraction) {
+        int keep = 256 - fraction;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0, s = y * width, d = dstOffset + y * dstStride; x < width; x++, s++, d++) {
+                int a = dst[d], b = src[s];
+                int rb = (a & MASK) * keep + (b & MASK) * fraction + 0x00800080;
+                int ag = ((a >>> 8) & MASK) * keep + ((b >>> 8) & MASK) * fraction + 0x00800080;
+                dst[d] = ((rb >>> 8) & MASK) | (((ag >>> 8) & MASK) << 8);
+            }
+        }
+    }
+
+    private static int clamp(int i, int size) {
+        return i < 0 ? 0 : i >= size ? size - 1 : i;
+    }
+
+    private void ensureCapacity(int width, int levelPixels, int blendPixels, boolean needsBlend) {
+        if (levels == null || levels.length < levelPixels) {
+            levels = new int[levelPixels];
+        }
+        if (needsBlend && (blend == null || blend.length < blendPixels)) {
+            blend = new int[blendPixels];
+        }
+        if (rbOuter == null || rbOuter.length < width + 4) {
+            rbOuter = new int[width + 4];
+            agOuter = new int[width + 4];
+            rbInner = new int[width + 4];
+            agInner = new int[width + 4];
+        }
+    }
+}
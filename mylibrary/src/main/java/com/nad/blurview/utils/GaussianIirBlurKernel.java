@@ -0,0 +1,240 @@
+/*
+ * MIT License
+ * Copyright (c) 2024 Muhamad Jaelani
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.nad.blurview.utils;
+
+/**
+ * Gaussian blur rekursif (IIR) Young-van Vliet: satu pass maju dan satu pass mundur
+ * orde tiga per baris dan per kolom. Biaya per piksel konstan untuk sigma berapa pun
+ * dan radius pecahan didukung penuh, sehingga animasi radius tidak "melompat".
+ * Radius dipetakan ke sigma dengan varians yang sama seperti stack blur.
+ * <p>
+ * Pass vertikal berjalan per channel di atas satu plane float {@code width*height} yang dipakai
+ * ulang, ditambah enam baris float; memori ini ditahan sampai {@link #release()}.
+ */
+public final class GaussianIirBlurKernel {
+
+    public static final int MAX_RADIUS = PyramidBlurKernel.MAX_RADIUS;
+
+    private float gain, c1, c2, c3;
+    // Kondisi awal pass mundur: v(N + i) = tepi + sum_j m[i][j] * (w(N - 1 - j) - tepi)
+    private final float[][] m = new float[3][3];
+    private float sigma = -1f;
+
+    private float[] lineR, lineG, lineB, plane, edge, edge2, edge3;
+
+    /**
+     * Blur {@code pixels} in-place.
+     */
+    public void blur(int[] pixels, int offset, int width, int height, int stride, float radius) {
+        if (width <= 0 || height <= 0) return;
+        if (stride < width || offset < 0 || offset + (long) (height - 1) * stride + width > pixels.length) {
+            throw new IllegalArgumentException("Pixel buffer too small for " + width + "x" + height);
+        }
+        radius = Math.max(1f, Math.min(radius, MAX_RADIUS));
+        computeCoefficients((float) Math.sqrt(radius * (radius + 2.0) / 6.0));
+        ensureCapacity(width, height);
+
+        horizontalPass(pixels, offset, stride, width, height);
+        for (int shift = 0; shift <= 16; shift += 8) {
+            verticalPass(pixels, offset, stride, width, height, shift);
+        }
+    }
+
+    public void release() {
+        lineR = lineG = lineB = plane = edge = edge2 = edge3 = null;
+    }
+
+    /**
+     * Koefisien Young &amp; van Vliet (1995), "Recursive implementation of the Gaussian filter".
+     */
+    private void computeCoefficients(float sigma) {
+        if (sigma == this.sigma) return;
+        this.sigma = sigma;
+        double q = sigma >= 2.5
+                ? 0.98711 * sigma - 0.96330
+                : 3.97156 - 4.14554 * Math.sqrt(1.0 - 0.26891 * sigma);
+        double q2 = q * q, q3 = q2 * q;
+        double b0 = 1.57825 + 2.44413 * q + 1.4281 * q2 + 0.422205 * q3;
+        double b1 = 2.44413 * q + 2.85619 * q2 + 1.26661 * q3;
+        double b2 = -(1.4281 * q2 + 1.26661 * q3);
+        double b3 = 0.422205 * q3;
+        c1 = (float) (b1 / b0);
+        c2 = (float) (b2 / b0);
+        c3 = (float) (b3 / b0);
+        gain = 1f - (c1 + c2 + c3);
+        computeBoundary(q);
+    }
+
+    /**
+     * Tepi diperlakukan sebagai perpanjangan konstan (replicate), seperti stack blur.
+     * Karena filter linear, keadaan awal pass mundur adalah fungsi linear dari tiga
+     * deviasi terakhir pass maju terhadap nilai tepi (Triggs &amp; Sdika, 2006). Matriksnya
+     * dihitung numerik: jalankan perpanjangan maju untuk tiap basis sampai meluruh,
+     * lalu pass mundur dari ujungnya.
+     */
+    private void computeBoundary(double q) {
+        double gain = this.gain, c1 = this.c1, c2 = this.c2, c3 = this.c3;
+        int length = (int) Math.ceil(10 * q) + 32;
+        double[] forward = new double[length + 3];
+        for (int j = 0; j < 3; j++) {
+            // forward[0..2] = w(N-3), w(N-2), w(N-1); deviasi input di luar tepi nol
+            forward[0] = j == 2 ? 1 : 0;
+            forward[1] = j == 1 ? 1 : 0;
+            forward[2] = j == 0 ? 1 : 0;
+            for (int n = 3; n < length + 3; n++) {
+                forward[n] = c1 * forward[n - 1] + c2 * forward[n - 2] + c3 * forward[n - 3];
+            }
+            double p1 = 0, p2 = 0, p3 = 0;
+            for (int n = length + 2; n >= 3; n--) {
+                double v = gain * forward[n] + c1 * p1 + c2 * p2 + c3 * p3;
+                p3 = p2;
+                p2 = p1;
+                p1 = v;
+            }
+            // p1 = v(N), p2 = v(N+1), p3 = v(N+2)
+            m[0][j] = (float) p1;
+            m[1][j] = (float) p2;
+            m[2][j] = (float) p3;
+        }
+    }
+
+    private void horizontalPass(int[] pixels, int offset, int stride, int width, int height) {
+        float[] r = lineR, g = lineG, b = lineB;
+        for (int y = 0; y < height; y++) {
+            int row = offset + y * stride;
+            for (int x = 0; x < width; x++) {
+                int p = pixels[row + x];
+                r[x] = (p >> 16) & 0xff;
+                g[x] = (p >> 8) & 0xff;
+                b[x] = p & 0xff;
+            }
+            filterLine(r, width);
+            filterLine(g, width);
+            filterLine(b, width);
+            for (int x = 0; x < width; x++) {
+                pixels[row + x] = 0xff000000 | toByte(r[x]) << 16 | toByte(g[x]) << 8 | toByte(b[x]);
+            }
+        }
+    }
+
+    /**
+     * Pass maju lalu mundur in-place. Tepi kiri memakai kondisi tunak nilai tepi
+     * (gain DC filter maju = 1), tepi kanan memakai matriks dari {@link #computeBoundary}.
+     */
+    private void filterLine(float[] line, int length) {
+        float gain = this.gain, c1 = this.c1, c2 = this.c2, c3 = this.c3;
+
+        float first = line[0], last = line[length - 1];
+        float p1 = first, p2 = p1, p3 = p1;
+        for (int i = 0; i < length; i++) {
+            float v = gain * line[i] + c1 * p1 + c2 * p2 + c3 * p3;
+            line[i] = v;
+            p3 = p2;
+            p2 = p1;
+            p1 = v;
+        }
+
+        float d1 = p1 - last, d2 = p2 - last, d3 = p3 - last;
+        p1 = last + m[0][0] * d1 + m[0][1] * d2 + m[0][2] * d3;
+        p2 = last + m[1][0] * d1 + m[1][1] * d2 + m[1][2] * d3;
+        p3 = last + m[2][0] * d1 + m[2][1] * d2 + m[2][2] * d3;
+        for (int i = length - 1; i >= 0; i--) {
+            float v = gain * line[i] + c1 * p1 + c2 * p2 + c3 * p3;
+            line[i] = v;
+            p3 = p2;
+            p2 = p1;
+            p1 = v;
+        }
+    }
+
+    /**
+     * Satu kanal (ditentukan {@code shift}) per panggilan, diproses baris demi baris
+     * memakai satu plane float. Tiga baris sebelumnya ada di plane itu sendiri; untuk
+     * tiga baris pertama/terakhir dipakai line {@code edge*} sebagai kondisi awal.
+     */
+    private void verticalPass(int[] pixels, int offset, int stride, int width, int height, int shift) {
+        float gain = this.gain, c1 = this.c1, c2 = this.c2, c3 = this.c3;
+        float[] plane = this.plane, edge = this.edge, edge2 = this.edge2, edge3 = this.edge3;
+
+        for (int x = 0; x < width; x++) {
+            edge[x] = (pixels[offset + x] >> shift) & 0xff;
+        }
+        for (int y = 0; y < height; y++) {
+            int row = y * width, src = offset + y * stride;
+            float[] a1 = y >= 1 ? plane : edge, a2 = y >= 2 ? plane : edge, a3 = y >= 3 ? plane : edge;
+            int o1 = y >= 1 ? row - width : 0, o2 = y >= 2 ? row - 2 * width : 0, o3 = y >= 3 ? row - 3 * width : 0;
+            for (int x = 0; x < width; x++) {
+                plane[row + x] = gain * ((pixels[src + x] >> shift) & 0xff)
+                        + c1 * a1[o1 + x] + c2 * a2[o2 + x] + c3 * a3[o3 + x];
+            }
+        }
+
+        // edge/edge2/edge3 = v(N), v(N+1), v(N+2) per kolom; w(N-1-j) di bawah baris 0 = tepi atas
+        int lastRow = (height - 1) * width, lastSrc = offset + (height - 1) * stride;
+        for (int x = 0; x < width; x++) {
+            float tail = (pixels[lastSrc + x] >> shift) & 0xff;
+            float top = edge[x];
+            float d1 = plane[lastRow + x] - tail;
+            float d2 = (height >= 2 ? plane[lastRow - width + x] : top) - tail;
+            float d3 = (height >= 3 ? plane[lastRow - 2 * width + x] : top) - tail;
+            edge[x] = tail + m[0][0] * d1 + m[0][1] * d2 + m[0][2] * d3;
+            edge2[x] = tail + m[1][0] * d1 + m[1][1] * d2 + m[1][2] * d3;
+            edge3[x] = tail + m[2][0] * d1 + m[2][1] * d2 + m[2][2] * d3;
+        }
+        int mask = ~(0xff << shift);
+        for (int y = height - 1; y >= 0; y--) {
+            int row = y * width, dst = offset + y * stride;
+            // Baris N, N+1, N+2 (di luar gambar) diambil dari edge, edge2, edge3
+            float[] a1 = y <= height - 2 ? plane : edge;
+            float[] a2 = y <= height - 3 ? plane : y == height - 2 ? edge : edge2;
+            float[] a3 = y <= height - 4 ? plane : y == height - 3 ? edge : y == height - 2 ? edge2 : edge3;
+            int o1 = y <= height - 2 ? row + width : 0;
+            int o2 = y <= height - 3 ? row + 2 * width : 0;
+            int o3 = y <= height - 4 ? row + 3 * width : 0;
+            for (int x = 0; x < width; x++) {
+                float v = gain * plane[row + x] + c1 * a1[o1 + x] + c2 * a2[o2 + x] + c3 * a3[o3 + x];
+                plane[row + x] = v;
+                pixels[dst + x] = (pixels[dst + x] & mask) | toByte(v) << shift;
+            }
+        }
+    }
+
+    private static int toByte(float v) {
+        int i = (int) (v + 0.5f);
+        return i < 0 ? 0 : Math.min(i, 255);
+    }
+
+    private void ensureCapacity(int width, int height) {
+        if (lineR == null || lineR.length < width) {
+            lineR = new float[width];
+            lineG = new float[width];
+            lineB = new float[width];
+            edge = new float[width];
+            edge2 = new float[width];
+            edge3 = new float[width];
+        }
+        if (plane == null || plane.length < width * height) {
+            plane = new float[width * height];
+        }
+    }
+}
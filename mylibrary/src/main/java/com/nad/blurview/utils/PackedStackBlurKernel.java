@@ -0,0 +1,141 @@
+/*
+ * MIT License
+ * Copyright (c) 2024 Muhamad Jaelani
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.nad.blurview.utils;
+
+/**
+ * Varian {@link StackBlurKernel} yang memproses kanal merah dan biru sekaligus (SWAR).
+ * Merah dan biru diakumulasi dalam satu {@code long} dengan lane 32-bit, hijau dalam
+ * {@code int} tersendiri. Hasil antara ditulis kembali ke buffer piksel dalam format
+ * ARGB terpaket, sehingga tidak perlu plane r/g/b terpisah; scratch yang tersisa
+ * hanya ring buffer sebesar {@code 2 * radius + 1}.
+ */
+public final class PackedStackBlurKernel {
+
+    private static final long LOW_LANE = 0xFFFFFFFFL;
+
+    private int[] stack = new int[0];
+
+    /**
+     * Blur {@code pixels} in-place.
+     *
+     * @param pixels buffer ARGB, baris ke-y dimulai di {@code offset + y * stride}
+     * @param radius dijepit ke rentang 1..{@link StackBlurKernel#MAX_RADIUS}
+     */
+    public void blur(int[] pixels, int offset, int width, int height, int stride, int radius) {
+        if (width <= 0 || height <= 0) return;
+        if (stride < width || offset < 0 || offset + (long) (height - 1) * stride + width > pixels.length) {
+            throw new IllegalArgumentException("Pixel buffer too small for " + width + "x" + height);
+        }
+        radius = Math.max(1, Math.min(radius, StackBlurKernel.MAX_RADIUS));
+        int div = radius * 2 + 1;
+        if (stack.length != div) {
+            stack = new int[div];
+        }
+        long divMul = StackBlurKernel.reciprocal((radius + 1) * (radius + 1));
+
+        for (int y = 0; y < height; y++) {
+            blurLine(pixels, offset + y * stride, 1, width, radius, divMul);
+        }
+        for (int x = 0; x < width; x++) {
+            blurLine(pixels, offset + x, stride, height, radius, divMul);
+        }
+    }
+
+    public void release() {
+        stack = new int[0];
+    }
+
+    private void blurLine(int[] pixels, int start, int step, int count, int radius, long divMul) {
+        int[] stack = this.stack;
+        int div = radius * 2 + 1;
+        int last = count - 1;
+
+        long rbSum = 0, rbIn = 0, rbOut = 0;
+        int gSum = 0, gIn = 0, gOut = 0;
+
+        for (int i = -radius; i <= radius; i++) {
+            int p = pixels[start + Math.max(0, Math.min(last, i)) * step];
+            stack[i + radius] = p;
+
+            long rb = spread(p);
+            int g = (p >> 8) & 0xff;
+            int weight = radius + 1 - Math.abs(i);
+            rbSum += rb * weight;
+            gSum += g * weight;
+
+            if (i > 0) {
+                rbIn += rb;
+                gIn += g;
+            } else {
+                rbOut += rb;
+                gOut += g;
+            }
+        }
+
+        int stackPointer = radius;
+        int index = start;
+        for (int k = 0; k < count; k++) {
+            // Baca piksel berikutnya sebelum menimpa posisi k, karena di tepi akhir keduanya bisa sama
+            int next = pixels[start + Math.min(k + radius + 1, last) * step];
+
+            pixels[index] = 0xff000000
+                    | (int) (((rbSum >>> 32) * divMul) >>> 32) << 16
+                    | (int) ((gSum * divMul) >>> 32) << 8
+                    | (int) (((rbSum & LOW_LANE) * divMul) >>> 32);
+
+            rbSum -= rbOut;
+            gSum -= gOut;
+
+            int stackStart = stackPointer - radius;
+            if (stackStart < 0) stackStart += div;
+            int p = stack[stackStart];
+            rbOut -= spread(p);
+            gOut -= (p >> 8) & 0xff;
+
+            stack[stackStart] = next;
+            rbIn += spread(next);
+            gIn += (next >> 8) & 0xff;
+
+            rbSum += rbIn;
+            gSum += gIn;
+
+            if (++stackPointer == div) stackPointer = 0;
+            p = stack[stackPointer];
+            long rb = spread(p);
+            int g = (p >> 8) & 0xff;
+            rbOut += rb;
+            gOut += g;
+            rbIn -= rb;
+            gIn -= g;
+
+            index += step;
+        }
+    }
+
+    /**
+     * 0x00RR00BB menjadi merah di lane atas dan biru di lane bawah {@code long}.
+     */
+    private static long spread(int p) {
+        return ((long) (p & 0x00FF0000) << 16) | (p & 0xFF);
+    }
+}
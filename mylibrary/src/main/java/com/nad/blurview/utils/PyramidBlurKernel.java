@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ * Copyright (c) 2024 Muhamad Jaelani
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.nad.blurview.utils;
+
+/**
+ * Blur radius besar dengan piramida downsample. Untuk radius di atas
+ * {@link StackBlurKernel#MAX_RADIUS}, gambar diperkecil 2^k kali (box filter, menyatu
+ * dengan pass horizontal), di-blur dengan radius {@code radius / 2^k}, lalu diperbesar
+ * kembali secara bilinear. Biaya hampir konstan berapa pun radiusnya.
+ */
+public final class PyramidBlurKernel {
+
+    /**
+     * Batas atas radius yang diterima, dalam piksel bitmap yang di-blur.
+     */
+    public static final int MAX_RADIUS = 100;
+
+    // Radius maksimum di level piramida; lebih kecil dari MAX_RADIUS kernel agar tetap halus
+    private static final int LEVEL_RADIUS = 16;
+
+    private final StackBlurKernel kernel;
+    private int[] level;
+    private int[] columnIndex, columnWeight;
+
+    public PyramidBlurKernel(StackBlurKernel kernel) {
+        this.kernel = kernel;
+    }
+
+    /**
+     * Blur {@code pixels} in-place. Radius sampai {@link StackBlurKernel#MAX_RADIUS}
+     * langsung diteruskan ke kernel stack blur.
+     */
+    public void blur(int[] pixels, int offset, int width, int height, int stride, float radius) {
+        blurDownsampled(pixels, offset, width, height, stride, 1, pixels, offset, stride, radius);
+    }
+
+    /**
+     * Seperti {@link #blur}, tetapi sumber lebih dulu diperkecil {@code factor} kali dan hasil
+     * ditulis ke {@code dst}. Downscale sumber dan level piramida digabung dalam satu
+     * {@link StackBlurKernel#blurDownsampled}; {@code radius} dalam piksel {@code dst}.
+     */
+    public void blurDownsampled(int[] src, int srcOffset, int srcWidth, int srcHeight, int srcStride,
+                                int factor, int[] dst, int dstOffset, int dstStride, float radius) {
+        radius = Math.min(radius, MAX_RADIUS);
+        if (radius <= StackBlurKernel.MAX_RADIUS) {
+            kernel.blurDownsampled(src, srcOffset, srcWidth, srcHeight, srcStride, factor,
+                    dst, dstOffset, dstStride, Math.round(radius));
+            return;
+        }
+
+        int levelFactor = 1;
+        while (radius / levelFactor > LEVEL_RADIUS) {
+            levelFactor <<= 1;
+        }
+        int width = StackBlurKernel.downsampledSize(srcWidth, factor);
+        int height = StackBlurKernel.downsampledSize(srcHeight, factor);
+        int lw = StackBlurKernel.downsampledSize(srcWidth, factor * levelFactor);
+        int lh = StackBlurKernel.downsampledSize(srcHeight, factor * levelFactor);
+        if (level == null || level.length < lw * lh) {
+            level = new int[lw * lh];
+        }
+
+        kernel.blurDownsampled(src, srcOffset, srcWidth, srcHeight, srcStride, factor * levelFactor,
+                level, 0, lw, Math.max(1, Math.round(radius / levelFactor)));
+        upsample(level, lw, lh, levelFactor, dst, dstOffset, width, height, dstStride);
+    }
+
+    public void release() {
+        level = null;
+        columnIndex = columnWeight = null;
+        kernel.release();
+    }
+
+    /**
+     * Perbesar bilinear dengan bobot fixed-point 8 bit. Pusat piksel keluaran x dipetakan
+     * ke {@code (x + 0.5) / factor - 0.5} di level, dijepit ke tepi.
+     */
+    private void upsample(int[] src, int sw, int sh, int factor,
+                          int[] dst, int offset, int width, int height, int stride) {
+        if (columnIndex == null || columnIndex.length < width) {
+            columnIndex = new int[width];
+            columnWeight = new int[width];
+        }
+        int[] cx = columnIndex, cw = columnWeight;
+        for (int x = 0; x < width; x++) {
+            int pos = sourcePosition(x, factor, sw);
+            cx[x] = pos >> 8;
+            cw[x] = pos & 0xff;
+        }
+
+        for (int y = 0; y < height; y++) {
+            int pos = sourcePosition(y, factor, sh);
+            int row0 = (pos >> 8) * sw;
+            int row1 = Math.min((pos >> 8) + 1, sh - 1) * sw;
+            int wy = pos & 0xff;
+            int out = offset + y * stride;
+
+            for (int x = 0; x < width; x++) {
+                int x0 = cx[x];
+                int x1 = Math.min(x0 + 1, sw - 1);
+                int wx = cw[x];
+
+                int top = lerp(src[row0 + x0], src[row0 + x1], wx);
+                int bottom = lerp(src[row1 + x0], src[row1 + x1], wx);
+                dst[out + x] = 0xff000000 | lerp(top, bottom, wy);
+            }
+        }
+    }
+
+    /**
+     * Posisi sumber dalam fixed-point 24.8, dijepit ke {@code [0, size - 1]}.
+     */
+    private static int sourcePosition(int i, int factor, int size) {
+        int pos = ((2 * i + 1) * 256) / (2 * factor) - 128;
+        return Math.max(0, Math.min(pos, (size - 1) * 256));
+    }
+
+    private static int lerp(int a, int b, int t) {
+        int s = 256 - t;
+        int rb = (((a & 0x00FF00FF) * s + (b & 0x00FF00FF) * t) >>> 8) & 0x00FF00FF;
+        int g = (((a & 0x0000FF00) * s + (b & 0x0000FF00) * t) >>> 8) & 0x0000FF00;
+        return rb | g;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * MIT License
+ * Copyright (c) 2024 Muhamad Jaelani
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.nad.blurview.utils;
+
+/**
+ * {@link BlurAlgorithm} CPU dengan kernel berjangkauan terbatas: piksel keluaran hanya
+ * bergantung pada piksel sumber sejauh {@link #getKernelExtent(float)} per sumbu. Karena itu
+ * sebagian bitmap bisa di-blur ulang dan hasilnya identik dengan blur penuh, asalkan area
+ * sumber diperlebar dua kali jangkauan dan hanya bagian dalamnya yang dipakai.
+ */
+public interface RegionBlurAlgorithm extends BlurAlgorithm {
+
+    /**
+     * Jangkauan kernel dalam piksel untuk {@code radius}, atau {@code -1} bila tidak terbatas
+     * untuk radius itu (misalnya lewat piramida downsample).
+     */
+    int getKernelExtent(float radius);
+
+    /**
+     * Blur in-place satu sub-rect buffer; tepi sub-rect dijepit seperti tepi bitmap.
+     * Dipanggil dari thread latar, tidak bersamaan dengan {@link #blur}.
+     *
+     * @param pixels buffer ARGB, baris ke-y dimulai di {@code offset + y * stride}
+     */
+    void blurPixels(int[] pixels, int offset, int width, int height, int stride, float radius);
+}
@@ -0,0 +1,207 @@
+/*
+ * MIT License
+ * Copyright (c) 2024 Muhamad Jaelani
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.nad.blurview.utils;
+
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Rect;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+import android.widget.RelativeLayout;
+
+import androidx.appcompat.widget.ContentFrameLayout;
+import androidx.constraintlayout.widget.ConstraintLayout;
+
+import com.nad.blurview.R;
+
+import java.util.ArrayList;
+import java.util.Set;
+
+/**
+ * Menggambar root hanya di dalam satu region (koordinat root). Canvas di-clip ke region dan
+ * hirarki ditelusuri sendiri: anak yang tidak beririsan dengan region tidak digambar sama sekali,
+ * termasuk anak yang di-transform atau di bawah parent {@code clipChildren=false} yang tidak
+ * bisa ditolak oleh framework.
+ * <p>
+ * Hanya container polos (tanpa background/foreground/onDraw, tanpa animasi) dari kelas yang
+ * urutan gambarnya diketahui yang ditelusuri; view lain digambar utuh dengan
+ * {@link View#draw(Canvas)} setelah transform, alpha dan clip-nya diterapkan seperti
+ * {@code ViewGroup.drawChild}. Hanya dipanggil dari UI thread.
+ * <p>
+ * View yang dikecualikan (tag {@code R.id.nad_blur_capture_excluded} atau set dari
+ * {@code BlurConfig}) dilewati bersama seluruh anaknya. Pengecualian hanya berlaku untuk view
+ * yang tercapai lewat container yang ditelusuri; di dalam view yang digambar utuh, framework
+ * yang menggambar anak-anaknya.
+ */
+public final class RegionCaptureDrawer {
+
+    private static final Rect clipBounds = new Rect();
+
+    private RegionCaptureDrawer() {
+    }
+
+    /**
+     * Tandai {@code view} agar tidak ikut digambar ke capture blur mana pun. Dari XML bisa
+     * dengan {@code <tag android:id="@id/nad_blur_capture_excluded" android:value="true" />}.
+     */
+    public static void setExcluded(View view, boolean excluded) {
+        view.setTag(R.id.nad_blur_capture_excluded, excluded ? Boolean.TRUE : null);
+    }
+
+    public static boolean isExcluded(View view) {
+        Object tag = view.getTag(R.id.nad_blur_capture_excluded);
+        return Boolean.TRUE.equals(tag) || "true".equals(tag);
+    }
+
+    /**
+     * Gambar {@code root} ke {@code canvas}, dibatasi {@code region} dalam koordinat root.
+     */
+    public static void draw(ViewGroup root, Canvas canvas, Rect region) {
+        draw(root, canvas, region, null);
+    }
+
+    /**
+     * Seperti {@link #draw(ViewGroup, Canvas, Rect)}, tetapi juga melewati {@code excluded}.
+     */
+    public static void draw(ViewGroup root, Canvas canvas, Rect region, Set<View> excluded) {
+        if (isExcluded(root, excluded)) return;
+        int save = canvas.save();
+        canvas.clipRect(region);
+        if (isTraversable(root)) {
+            drawChildren(root, canvas, excluded);
+        } else {
+            root.draw(canvas);
+        }
+        canvas.restoreToCount(save);
+    }
+
+    private static boolean isExcluded(View view, Set<View> excluded) {
+        return (excluded != null && excluded.contains(view)) || isExcluded(view);
+    }
+
+    /**
+     * Container yang gambarnya persis latar kosong + anak-anaknya sesuai urutan indeks/Z.
+     * Subclass tidak dihitung karena bisa mengubah urutan atau menggambar di dispatchDraw.
+     */
+    private static boolean isTraversable(View view) {
+        if (!(view instanceof ViewGroup)) return false;
+        Class<?> type = view.getClass();
+        if (type != FrameLayout.class && type != LinearLayout.class && type != RelativeLayout.class
+                && type != ContentFrameLayout.class && type != ConstraintLayout.class) {
+            return false;
+        }
+        ViewGroup group = (ViewGroup) view;
+        if (!group.willNotDraw() || group.getBackground() != null || group.getForeground() != null
+                || group.getLayoutTransition() != null) {
+            return false;
+        }
+        // Animation lama diterapkan framework saat drawChild dan tidak bisa ditiru dari luar
+        for (int i = 0, count = group.getChildCount(); i < count; i++) {
+            if (group.getChildAt(i).getAnimation() != null) return false;
+        }
+        return true;
+    }
+
+    private static void drawChildren(ViewGroup group, Canvas canvas, Set<View> excluded) {
+        int save = canvas.save();
+        if (group.getClipToPadding()) {
+            canvas.clipRect(group.getScrollX() + group.getPaddingLeft(),
+                    group.getScrollY() + group.getPaddingTop(),
+                    group.getScrollX() + group.getWidth() - group.getPaddingRight(),
+                    group.getScrollY() + group.getHeight() - group.getPaddingBottom());
+        }
+
+        int count = group.getChildCount();
+        ArrayList<View> ordered = orderByZ(group);
+        for (int i = 0; i < count; i++) {
+            drawChild(group, ordered != null ? ordered.get(i) : group.getChildAt(i), canvas, excluded);
+        }
+        canvas.restoreToCount(save);
+    }
+
+    /**
+     * Urutan gambar ViewGroup saat ada anak dengan Z bukan nol: stabil berdasarkan Z.
+     */
+    private static ArrayList<View> orderByZ(ViewGroup group) {
+        int count = group.getChildCount();
+        boolean hasZ = false;
+        for (int i = 0; i < count && !hasZ; i++) {
+            hasZ = group.getChildAt(i).getZ() != 0f;
+        }
+        if (!hasZ) return null;
+
+        ArrayList<View> ordered = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            View child = group.getChildAt(i);
+            float z = child.getZ();
+            int insert = ordered.size();
+            while (insert > 0 && ordered.get(insert - 1).getZ() > z) {
+                insert--;
+            }
+            ordered.add(insert, child);
+        }
+        return ordered;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static void drawChild(ViewGroup parent, View child, Canvas canvas, Set<View> excluded) {
+        if (child.getVisibility() != View.VISIBLE || child.getAlpha() <= 0f) return;
+        if (isExcluded(child, excluded)) return;
+
+        int width = child.getWidth();
+        int height = child.getHeight();
+        boolean clipChildren = parent.getClipChildren();
+
+        int save = canvas.save();
+        canvas.translate(child.getLeft(), child.getTop());
+        Matrix matrix = child.getMatrix();
+        if (!matrix.isIdentity()) {
+            canvas.concat(matrix);
+        }
+        // Sama seperti framework: hanya anak yang di-clip parent yang boleh ditolak dari batasnya
+        if (clipChildren && canvas.quickReject(0, 0, width, height, Canvas.EdgeType.BW)) {
+            canvas.restoreToCount(save);
+            return;
+        }
+        if (clipChildren) {
+            canvas.clipRect(0, 0, width, height);
+        }
+        if (child.getAlpha() < 1f) {
+            canvas.saveLayerAlpha(0, 0, width, height, Math.round(child.getAlpha() * 255));
+        }
+
+        canvas.translate(-child.getScrollX(), -child.getScrollY());
+        // Clip bounds berlaku di ruang yang sudah di-scroll
+        if (child.getClipBounds(clipBounds)) {
+            canvas.clipRect(clipBounds);
+        }
+        if (isTraversable(child)) {
+            drawChildren((ViewGroup) child, canvas, excluded);
+        } else {
+            child.draw(canvas);
+        }
+        canvas.restoreToCount(save);
+    }
+}
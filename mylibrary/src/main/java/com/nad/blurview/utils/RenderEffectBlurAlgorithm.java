@@ -105,11 +105,16 @@ public class RenderEffectBlurAlgorithm implements BlurAlgorithm {
 
     @Override
     public void destroy() {
+        releaseBuffers();
+    }
+
+    @Override
+    public void releaseBuffers() {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
             renderNode.discardDisplayList();
         }
         if (fallbackAlgorithm != null) {
-            fallbackAlgorithm.destroy();
+            fallbackAlgorithm.releaseBuffers();
         }
     }
 }
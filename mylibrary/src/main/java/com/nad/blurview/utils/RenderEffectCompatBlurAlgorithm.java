@@ -120,11 +120,16 @@ public final class RenderEffectCompatBlurAlgorithm implements BlurAlgorithm {
 
     @Override
     public void destroy() {
+        releaseBuffers();
+    }
+
+    @Override
+    public void releaseBuffers() {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
             renderNode.discardDisplayList();
         }
         if (fallbackAlgorithm != null) {
-            fallbackAlgorithm.destroy();
+            fallbackAlgorithm.releaseBuffers();
         }
     }
 }
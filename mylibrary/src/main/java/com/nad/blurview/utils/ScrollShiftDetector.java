@@ -0,0 +1,348 @@
+/*
+ * MIT License
+ * Copyright (c) 2024 Muhamad Jaelani
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.nad.blurview.utils;
+
+import android.graphics.Rect;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Mendeteksi bahwa isi di belakang blur view hanya bergeser karena scroll, sehingga hasil blur
+ * lama bisa digeser dan hanya strip yang baru terlihat yang perlu di-capture dan di-blur.
+ * <p>
+ * Container yang dipakai adalah view scrollable terdalam yang menutupi seluruh area view dan
+ * satu-satunya yang beririsan dengannya di tiap tingkat (selain blur view), dengan background
+ * polos di atasnya. Posisi anak-anak container dicatat dalam koordinat root saat capture;
+ * geseran dianggap murni bila semua anak yang tetap terlihat bergeser sama pada satu sumbu, tidak
+ * dirty, dan anak yang baru muncul atau hilang hanya berada di strip yang baru terlihat. Cara ini
+ * berlaku untuk container berbasis {@code scrollTo} (ScrollView) maupun yang menggeser anaknya
+ * (RecyclerView).
+ * <p>
+ * Hanya dipanggil dari UI thread.
+ */
+public final class ScrollShiftDetector {
+
+    // Per anak: left, top, right, bottom (koordinat root), alpha, visibility
+    private static final int STRIDE = 6;
+
+    private final View blurView;
+    private final ViewGroup rootViewGroup;
+    private final int[] rootLocation = new int[2];
+    private final int[] location = new int[2];
+
+    private ViewGroup container;
+    private final Rect region = new Rect();
+    private final Rect containerBounds = new Rect();
+    private final ArrayList<View> children = new ArrayList<>();
+    private float[] bounds = new float[0];
+    private final float[] current = new float[STRIDE];
+    private boolean[] seen = new boolean[0];
+    // Geseran yang sudah terjadi tapi belum diterapkan ke bitmap (pembulatan ke piksel bitmap)
+    private float residualX, residualY;
+
+    // Hasil pengukuran frame ini
+    private final Rect currentRegion = new Rect();
+    private final Rect retained = new Rect();
+    private final Rect scratch = new Rect();
+    private boolean broken;
+    private boolean shiftValid;
+    private float shiftX, shiftY;
+
+    public ScrollShiftDetector(View blurView, ViewGroup rootViewGroup) {
+        this.blurView = blurView;
+        this.rootViewGroup = rootViewGroup;
+    }
+
+    public ViewGroup getContainer() {
+        return container;
+    }
+
+    /**
+     * Lupakan container; snapshot berikutnya mencarinya lagi.
+     */
+    public void reset() {
+        container = null;
+        children.clear();
+        shiftValid = false;
+    }
+
+    /**
+     * Sisa geseran (koordinat root) yang belum diterapkan ke bitmap karena pembulatan ke piksel
+     * bitmap; 0 setelah capture penuh.
+     */
+    public void setResidual(float residualX, float residualY) {
+        this.residualX = residualX;
+        this.residualY = residualY;
+    }
+
+    /**
+     * Catat posisi anak container setelah capture untuk {@code region} (koordinat root).
+     */
+    public void snapshot(Rect region, Set<View> excludedViews) {
+        this.region.set(region);
+        broken = false;
+        shiftValid = false;
+        container = findContainer(region, excludedViews);
+        children.clear();
+        if (container == null) return;
+
+        containerLocation(container, containerBounds);
+        int count = container.getChildCount();
+        if (bounds.length < count * STRIDE) {
+            bounds = new float[count * STRIDE];
+        }
+        for (int i = 0; i < count; i++) {
+            View child = container.getChildAt(i);
+            children.add(child);
+            childBounds(child, bounds, i * STRIDE);
+        }
+    }
+
+    /**
+     * Ukur geseran sejak snapshot. Harus dipanggil di pre-draw sebelum capture mana pun
+     * (flag dirty masih utuh). Kegagalan bersifat lengket sampai snapshot berikutnya.
+     */
+    public void update() {
+        shiftValid = false;
+        if (container == null || broken) return;
+        broken = !measure();
+    }
+
+    /**
+     * Geseran isi (koordinat root, termasuk sisa pembulatan) bila frame ini murni scroll.
+     */
+    public boolean getShift(float[] out) {
+        if (!shiftValid || broken) return false;
+        out[0] = shiftX + residualX;
+        out[1] = shiftY + residualY;
+        return true;
+    }
+
+    private boolean measure() {
+        if (container.getParent() == null || !container.isAttachedToWindow()) return false;
+
+        rootViewGroup.getLocationOnScreen(rootLocation);
+        blurView.getLocationOnScreen(location);
+        currentRegion.set(location[0] - rootLocation[0], location[1] - rootLocation[1],
+                location[0] - rootLocation[0] + blurView.getWidth(),
+                location[1] - rootLocation[1] + blurView.getHeight());
+        // Blur view boleh bergerak di dalam area capture (margin over-capture)
+        if (!region.contains(currentRegion)) return false;
+
+        containerLocation(container, scratch);
+        if (!scratch.equals(containerBounds)) return false;
+
+        // Geseran kandidat dari anak pertama yang terlihat sebelum dan sesudahnya
+        int count = container.getChildCount();
+        boolean found = false;
+        for (int i = 0; i < count && !found; i++) {
+            View child = container.getChildAt(i);
+            int index = children.indexOf(child);
+            if (index < 0) continue;
+            childBounds(child, current, 0);
+            int o = index * STRIDE;
+            if (intersects(bounds, o, region) && intersects(current, 0, region)) {
+                shiftX = current[0] - bounds[o];
+                shiftY = current[1] - bounds[o + 1];
+                found = true;
+            }
+        }
+        if (!found) return false;
+        if (shiftX == 0f && shiftY == 0f) {
+            // Tidak bergeser; container yang dirty berarti isinya berubah, bukan scroll
+            return !container.isDirty();
+        }
+        if (shiftX != 0f && shiftY != 0f) return false;
+
+        // Area yang isinya berasal dari isi lama yang digeser
+        retained.set(region);
+        if (!retained.intersect(Math.round(region.left + shiftX), Math.round(region.top + shiftY),
+                Math.round(region.right + shiftX), Math.round(region.bottom + shiftY))) {
+            return false;
+        }
+
+        if (seen.length < children.size()) {
+            seen = new boolean[children.size()];
+        }
+        Arrays.fill(seen, false);
+        for (int i = 0; i < count; i++) {
+            View child = container.getChildAt(i);
+            childBounds(child, current, 0);
+            boolean visible = current[5] == View.VISIBLE && current[4] > 0f;
+            int index = children.indexOf(child);
+            int o = index * STRIDE;
+            boolean moved = index >= 0
+                    && current[0] - bounds[o] == shiftX && current[1] - bounds[o + 1] == shiftY
+                    && current[2] - bounds[o + 2] == shiftX && current[3] - bounds[o + 3] == shiftY
+                    && current[4] == bounds[o + 4] && current[5] == bounds[o + 5]
+                    && !isTransformed(child);
+            if (moved) {
+                seen[index] = true;
+                if (visible && child.isDirty() && intersects(current, 0, retained)) return false;
+            } else if (visible && intersects(current, 0, retained)) {
+                // Anak baru, di-rebind, atau berubah di area yang dipakai ulang
+                return false;
+            }
+        }
+        for (int i = 0; i < children.size(); i++) {
+            if (seen[i]) continue;
+            int o = i * STRIDE;
+            boolean wasVisible = bounds[o + 5] == View.VISIBLE && bounds[o + 4] > 0f;
+            if (wasVisible && intersectsShifted(bounds, o, retained)) return false;
+        }
+        shiftValid = true;
+        return true;
+    }
+
+    /**
+     * Container scroll terdalam pada rantai view tunggal yang menutupi {@code region}.
+     */
+    private ViewGroup findContainer(Rect region, Set<View> excludedViews) {
+        ViewGroup group = rootViewGroup;
+        ViewGroup found = null;
+        while (true) {
+            if (found == null && !isShiftInvariant(group)) return null;
+            View next = null;
+            int count = group.getChildCount();
+            for (int i = 0; i < count; i++) {
+                View child = group.getChildAt(i);
+                if (child == null || child.getVisibility() != View.VISIBLE) continue;
+                if (excludedViews.contains(child) || RegionCaptureDrawer.isExcluded(child)) continue;
+                if (isBlurPath(child)) {
+                    // Saudara blur view ikut ter-capture dan tidak ikut bergeser
+                    if (!isPathClean(child, region, excludedViews)) return null;
+                    continue;
+                }
+                containerLocation(child, scratch);
+                if (!Rect.intersects(scratch, region)) continue;
+                if (next != null) return found;
+                next = child;
+            }
+            if (!(next instanceof ViewGroup) || isTransformed(next)) return found;
+            containerLocation(next, scratch);
+            if (!scratch.contains(region)) return found;
+
+            if (next.canScrollVertically(1) || next.canScrollVertically(-1)
+                    || next.canScrollHorizontally(1) || next.canScrollHorizontally(-1)) {
+                if (!isShiftInvariant(next) || hasScrollDecor(next, scratch, region)) return found;
+                found = (ViewGroup) next;
+            }
+            group = (ViewGroup) next;
+        }
+    }
+
+    private boolean isBlurPath(View view) {
+        ViewParent parent = blurView.getParent();
+        if (view == blurView) return true;
+        while (parent instanceof View && parent != rootViewGroup) {
+            if (parent == view) return true;
+            parent = parent.getParent();
+        }
+        return false;
+    }
+
+    /**
+     * {@code view} di jalur menuju blur view tidak menggambar apa pun di {@code region} selain
+     * background polos dan blur view itu sendiri.
+     */
+    private boolean isPathClean(View view, Rect region, Set<View> excludedViews) {
+        if (view == blurView) return true;
+        if (!isShiftInvariant(view)) return false;
+        if (!(view instanceof ViewGroup)) return false;
+        ViewGroup group = (ViewGroup) view;
+        int count = group.getChildCount();
+        for (int i = 0; i < count; i++) {
+            View child = group.getChildAt(i);
+            if (child == null || child.getVisibility() != View.VISIBLE) continue;
+            if (excludedViews.contains(child) || RegionCaptureDrawer.isExcluded(child)) continue;
+            if (isBlurPath(child)) {
+                if (!isPathClean(child, region, excludedViews)) return false;
+                continue;
+            }
+            containerLocation(child, scratch);
+            if (Rect.intersects(scratch, region)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Background polos dan tanpa foreground: tidak berubah saat isi di atasnya bergeser.
+     */
+    private static boolean isShiftInvariant(View view) {
+        Drawable background = view.getBackground();
+        return (background == null || background instanceof ColorDrawable) && view.getForeground() == null;
+    }
+
+    /**
+     * Scrollbar dan fading edge digambar di posisi tetap, tidak ikut bergeser.
+     */
+    private static boolean hasScrollDecor(View view, Rect viewBounds, Rect region) {
+        if (view.isVerticalFadingEdgeEnabled() || view.isHorizontalFadingEdgeEnabled()) return true;
+        if (view.isVerticalScrollBarEnabled()
+                && region.right > viewBounds.right - view.getVerticalScrollbarWidth()) {
+            return true;
+        }
+        return view.isHorizontalScrollBarEnabled()
+                && region.bottom > viewBounds.bottom - view.getHorizontalScrollbarHeight();
+    }
+
+    private static boolean isTransformed(View view) {
+        return view.getScaleX() != 1f || view.getScaleY() != 1f || view.getRotation() != 0f
+                || view.getRotationX() != 0f || view.getRotationY() != 0f;
+    }
+
+    private void containerLocation(View view, Rect out) {
+        rootViewGroup.getLocationOnScreen(rootLocation);
+        view.getLocationOnScreen(location);
+        int left = location[0] - rootLocation[0];
+        int top = location[1] - rootLocation[1];
+        out.set(left, top, left + view.getWidth(), top + view.getHeight());
+    }
+
+    private void childBounds(View child, float[] out, int o) {
+        float left = containerBounds.left - container.getScrollX() + child.getLeft() + child.getTranslationX();
+        float top = containerBounds.top - container.getScrollY() + child.getTop() + child.getTranslationY();
+        out[o] = left;
+        out[o + 1] = top;
+        out[o + 2] = left + child.getWidth();
+        out[o + 3] = top + child.getHeight();
+        out[o + 4] = child.getAlpha();
+        out[o + 5] = child.getVisibility();
+    }
+
+    private static boolean intersects(float[] b, int o, Rect r) {
+        return b[o] < r.right && b[o + 1] < r.bottom && b[o + 2] > r.left && b[o + 3] > r.top;
+    }
+
+    private boolean intersectsShifted(float[] b, int o, Rect r) {
+        return b[o] + shiftX < r.right && b[o + 1] + shiftY < r.bottom
+                && b[o + 2] + shiftX > r.left && b[o + 3] + shiftY > r.top;
+    }
+}
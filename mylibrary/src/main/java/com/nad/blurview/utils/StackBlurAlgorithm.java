@@ -26,9 +26,36 @@ import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 
-public class StackBlurAlgorithm implements BlurAlgorithm {
+public class StackBlurAlgorithm implements RegionBlurAlgorithm, DownsampleBlurAlgorithm {
     public final Paint blurPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
 
+    // Dipakai ulang antar frame agar refresh tidak mengalokasikan apa pun
+    private final StackBlurKernel kernel = new StackBlurKernel();
+    private final PyramidBlurKernel pyramidKernel = new PyramidBlurKernel(kernel);
+    private int[] pixels;
+    private boolean largeRadiusEnabled;
+
+    public StackBlurAlgorithm() {
+        kernel.setParallelism(BlurExecutor.defaultParallelism());
+    }
+
+    /**
+     * Aktifkan/nonaktifkan blur paralel per stripe baris dan kolom.
+     */
+    public StackBlurAlgorithm setParallelEnabled(boolean enabled) {
+        kernel.setParallelism(enabled ? BlurExecutor.defaultParallelism() : 1);
+        return this;
+    }
+
+    /**
+     * Izinkan radius di atas {@link StackBlurKernel#MAX_RADIUS} (sampai
+     * {@link PyramidBlurKernel#MAX_RADIUS}) lewat {@link PyramidBlurKernel}.
+     */
+    public StackBlurAlgorithm setLargeRadiusEnabled(boolean enabled) {
+        this.largeRadiusEnabled = enabled;
+        return this;
+    }
+
     @Override
     public Bitmap.Config getConfig() {
         return Bitmap.Config.ARGB_8888;
@@ -41,7 +68,52 @@ public class StackBlurAlgorithm implements BlurAlgorithm {
 
     @Override
     public Bitmap blur(Bitmap bitmap, float radius) {
-        return BlurUtils.blur(bitmap, (int) radius);
+        if (radius < 1f || bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()) return bitmap;
+
+        int w = bitmap.getWidth();
+        int h = bitmap.getHeight();
+        if (pixels == null || pixels.length < w * h) {
+            pixels = new int[w * h];
+        }
+
+        bitmap.getPixels(pixels, 0, w, 0, 0, w, h);
+        if (largeRadiusEnabled) {
+            pyramidKernel.blur(pixels, 0, w, h, w, radius);
+        } else {
+            kernel.blur(pixels, 0, w, h, w, (int) radius);
+        }
+        bitmap.setPixels(pixels, 0, w, 0, 0, w, h);
+        return bitmap;
+    }
+
+    @Override
+    public int getKernelExtent(float radius) {
+        if (largeRadiusEnabled) {
+            // Di atas MAX_RADIUS piramida mengambil alih dan hasilnya tidak lokal
+            return radius > StackBlurKernel.MAX_RADIUS ? -1 : Math.max(1, Math.round(radius));
+        }
+        return Math.max(1, Math.min((int) radius, StackBlurKernel.MAX_RADIUS));
+    }
+
+    @Override
+    public void blurPixels(int[] pixels, int offset, int width, int height, int stride, float radius) {
+        if (largeRadiusEnabled) {
+            pyramidKernel.blur(pixels, offset, width, height, stride, radius);
+        } else {
+            kernel.blur(pixels, offset, width, height, stride, (int) radius);
+        }
+    }
+
+    @Override
+    public void blurPixelsDownsampled(int[] src, int srcOffset, int srcWidth, int srcHeight, int srcStride,
+                                      int factor, int[] dst, int dstOffset, int dstStride, float radius) {
+        if (largeRadiusEnabled) {
+            pyramidKernel.blurDownsampled(src, srcOffset, srcWidth, srcHeight, srcStride, factor,
+                    dst, dstOffset, dstStride, radius);
+        } else {
+            kernel.blurDownsampled(src, srcOffset, srcWidth, srcHeight, srcStride, factor,
+                    dst, dstOffset, dstStride, (int) radius);
+        }
     }
 
     @Override
@@ -57,6 +129,12 @@ public class StackBlurAlgorithm implements BlurAlgorithm {
 
     @Override
     public void destroy() {
+        releaseBuffers();
+    }
 
+    @Override
+    public void releaseBuffers() {
+        pyramidKernel.release();
+        pixels = null;
     }
 }
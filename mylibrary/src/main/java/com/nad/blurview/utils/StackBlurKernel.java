@@ -0,0 +1,518 @@
+/*
+ * MIT License
+ * Copyright (c) 2024 Muhamad Jaelani
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.nad.blurview.utils;
+
+import java.util.Arrays;
+
+/**
+ * Kernel stack blur murni Java yang bekerja langsung pada buffer piksel ARGB milik pemanggil.
+ * Tidak bergantung pada Bitmap sehingga bisa diuji di JVM biasa.
+ * Buffer kerja disimpan di instance dan dipakai ulang antar frame; satu instance
+ * tidak boleh dipakai dari beberapa thread sekaligus.
+ * <p>
+ * Pembagian rata-rata memakai pengali reciprocal, jadi tidak ada tabel pembagi yang
+ * ukurannya tumbuh kuadratik terhadap radius.
+ * <p>
+ * Dengan {@link #setParallelism(int)} &gt; 1, pass horizontal dibagi per kelompok baris dan
+ * pass vertikal per kelompok kolom, lalu dikerjakan paralel di {@link BlurExecutor}.
+ */
+public final class StackBlurKernel {
+
+    public static final int MAX_RADIUS = 25;
+
+    // Stripe lebih kecil dari ini tidak sebanding dengan biaya hand-off ke worker
+    private static final int MIN_PIXELS_PER_STRIPE = 16 * 1024;
+
+    // Jumlah kolom yang diproses bersamaan pada pass vertikal ter-blok
+    private static final int COLUMN_TILE = 16;
+
+    private int[] r, g, b;
+
+    private Stripe[] stripes = new Stripe[0];
+    private int parallelism = 1;
+
+    // Sisa stripe worker pada pass yang berjalan; satu barrier dipakai ulang untuk semua pass
+    private final Object barrier = new Object();
+    private int pendingStripes;
+
+    // Parameter blur yang sedang berjalan, dibaca oleh stripe di worker thread
+    private int[] src, pixels;
+    private int srcOffset, srcStride, srcWidth, srcHeight, factor;
+    private int offset, width, height, stride, radius;
+    private long divMul;
+
+    /**
+     * Jumlah maksimum stripe per pass. 1 berarti semua dikerjakan di thread pemanggil.
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Blur {@code pixels} in-place.
+     *
+     * @param pixels buffer ARGB, baris ke-y dimulai di {@code offset + y * stride}
+     * @param radius dijepit ke rentang 1..{@link #MAX_RADIUS}
+     */
+    public void blur(int[] pixels, int offset, int width, int height, int stride, int radius) {
+        if (width <= 0 || height <= 0) return;
+        checkBounds(pixels, offset, width, height, stride);
+        run(pixels, offset, stride, 1, pixels, offset, width, height, stride, radius);
+    }
+
+    /**
+     * Downscale {@code src} dengan box filter {@code factor x factor} sambil membaca baris
+     * untuk pass horizontal, lalu tulis hasil blur ke {@code dst}. Tidak ada bitmap atau
+     * buffer perantara hasil scale; blok di tepi kanan/bawah yang terpotong dirata-rata
+     * dari piksel yang tersedia.
+     *
+     * @param dst buffer tujuan berukuran minimal {@link #downsampledSize}(srcWidth/srcHeight, factor)
+     */
+    public void blurDownsampled(int[] src, int srcOffset, int srcWidth, int srcHeight, int srcStride,
+                                int factor,
+                                int[] dst, int dstOffset, int dstStride,
+                                int radius) {
+        if (srcWidth <= 0 || srcHeight <= 0) return;
+        if (factor < 1) throw new IllegalArgumentException("factor must be >= 1");
+        checkBounds(src, srcOffset, srcWidth, srcHeight, srcStride);
+
+        int width = downsampledSize(srcWidth, factor);
+        int height = downsampledSize(srcHeight, factor);
+        checkBounds(dst, dstOffset, width, height, dstStride);
+
+        this.srcWidth = srcWidth;
+        this.srcHeight = srcHeight;
+        run(src, srcOffset, srcStride, factor, dst, dstOffset, width, height, dstStride, radius);
+    }
+
+    public static int downsampledSize(int size, int factor) {
+        return (size + factor - 1) / factor;
+    }
+
+    private void run(int[] src, int srcOffset, int srcStride, int factor,
+                     int[] pixels, int offset, int width, int height, int stride, int radius) {
+        radius = Math.max(1, Math.min(radius, MAX_RADIUS));
+        ensureCapacity(width * height);
+
+        this.src = src;
+        this.srcOffset = srcOffset;
+        this.srcStride = srcStride;
+        this.factor = factor;
+        this.pixels = pixels;
+        this.offset = offset;
+        this.width = width;
+        this.height = height;
+        this.stride = stride;
+        this.radius = radius;
+        this.divMul = reciprocal((radius + 1) * (radius + 1));
+        try {
+            int count = Math.min(parallelism, Math.max(1, width * height / MIN_PIXELS_PER_STRIPE));
+            Stripe[] stripes = obtainStripes(count, radius, width);
+            if (count == 1) {
+                horizontalPass(0, height, stripes[0].stack, stripes[0].row);
+                stripes[0].pass = Stripe.VERTICAL;
+                stripes[0].start = 0;
+                stripes[0].end = width;
+                stripes[0].runPass();
+            } else {
+                runStripes(stripes, count, Stripe.HORIZONTAL, height);
+                runStripes(stripes, count, Stripe.VERTICAL, width);
+            }
+        } finally {
+            this.src = null;
+            this.pixels = null;
+        }
+    }
+
+    private static void checkBounds(int[] pixels, int offset, int width, int height, int stride) {
+        if (stride < width || offset < 0 || offset + (long) (height - 1) * stride + width > pixels.length) {
+            throw new IllegalArgumentException("Pixel buffer too small for " + width + "x" + height);
+        }
+    }
+
+    /**
+     * Lepas semua buffer kerja. Akan dialokasikan ulang pada pemanggilan {@link #blur} berikutnya.
+     */
+    public void release() {
+        r = g = b = null;
+        stripes = new Stripe[0];
+    }
+
+    private void runStripes(Stripe[] stripes, int count, int pass, int extent) {
+        for (int i = 0; i < count; i++) {
+            Stripe stripe = stripes[i];
+            stripe.pass = pass;
+            stripe.start = (int) ((long) extent * i / count);
+            stripe.end = (int) ((long) extent * (i + 1) / count);
+            stripe.error = null;
+        }
+        synchronized (barrier) {
+            pendingStripes = count - 1;
+        }
+        for (int i = 1; i < count; i++) {
+            BlurExecutor.execute(stripes[i]);
+        }
+        // Thread pemanggil ikut mengerjakan stripe pertama; worker tetap ditunggu walau stripe
+        // ini gagal, karena mereka menulis plane r/g/b yang dipakai blur berikutnya
+        try {
+            stripes[0].runPass();
+        } finally {
+            awaitStripes();
+        }
+
+        for (int i = 1; i < count; i++) {
+            if (stripes[i].error != null) {
+                throw new IllegalStateException("Blur stripe failed", stripes[i].error);
+            }
+        }
+    }
+
+    private void awaitStripes() {
+        boolean interrupted = false;
+        synchronized (barrier) {
+            while (pendingStripes > 0) {
+                try {
+                    barrier.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private void stripeFinished() {
+        synchronized (barrier) {
+            if (--pendingStripes == 0) {
+                barrier.notifyAll();
+            }
+        }
+    }
+
+    private void horizontalPass(int startY, int endY, int[] stack, int[] row) {
+        int[] r = this.r, g = this.g, b = this.b;
+        long divMul = this.divMul;
+        int w = width, radius = this.radius;
+
+        int end = (radius * 2 + 1) * 3;
+        int yi = startY * w;
+
+        for (int y = startY; y < endY; y++) {
+            // Salin baris dengan padding tepi kanan agar loop utama tidak perlu clamp
+            if (factor == 1) {
+                System.arraycopy(src, srcOffset + y * srcStride, row, 0, w);
+            } else {
+                downsampleRow(y, row);
+            }
+            Arrays.fill(row, w, w + radius + 1, row[w - 1]);
+
+            int rinsum = 0, ginsum = 0, binsum = 0;
+            int routsum = 0, goutsum = 0, boutsum = 0;
+            int rsum = 0, gsum = 0, bsum = 0;
+
+            for (int i = -radius; i <= radius; i++) {
+                int p = row[i < 0 ? 0 : i];
+                int si = (i + radius) * 3;
+                int vr = (p >> 16) & 0xff, vg = (p >> 8) & 0xff, vb = p & 0xff;
+                stack[si] = vr;
+                stack[si + 1] = vg;
+                stack[si + 2] = vb;
+
+                int rbs = radius + 1 - Math.abs(i);
+                rsum += vr * rbs;
+                gsum += vg * rbs;
+                bsum += vb * rbs;
+
+                if (i > 0) {
+                    rinsum += vr;
+                    ginsum += vg;
+                    binsum += vb;
+                } else {
+                    routsum += vr;
+                    goutsum += vg;
+                    boutsum += vb;
+                }
+            }
+
+            int start = 0;
+            int pointer = radius * 3;
+            int next = radius + 1;
+
+            for (int x = 0; x < w; x++) {
+                r[yi] = (int) ((rsum * divMul) >>> 32);
+                g[yi] = (int) ((gsum * divMul) >>> 32);
+                b[yi] = (int) ((bsum * divMul) >>> 32);
+
+                rsum -= routsum;
+                gsum -= goutsum;
+                bsum -= boutsum;
+
+                routsum -= stack[start];
+                goutsum -= stack[start + 1];
+                boutsum -= stack[start + 2];
+
+                int p = row[next++];
+                int vr = (p >> 16) & 0xff, vg = (p >> 8) & 0xff, vb = p & 0xff;
+                stack[start] = vr;
+                stack[start + 1] = vg;
+                stack[start + 2] = vb;
+
+                rinsum += vr;
+                ginsum += vg;
+                binsum += vb;
+
+                rsum += rinsum;
+                gsum += ginsum;
+                bsum += binsum;
+
+                pointer += 3;
+                if (pointer == end) pointer = 0;
+                vr = stack[pointer];
+                vg = stack[pointer + 1];
+                vb = stack[pointer + 2];
+
+                routsum += vr;
+                goutsum += vg;
+                boutsum += vb;
+
+                rinsum -= vr;
+                ginsum -= vg;
+                binsum -= vb;
+
+                start += 3;
+                if (start == end) start = 0;
+
+                yi++;
+            }
+        }
+    }
+
+    /**
+     * Rata-rata box {@code factor x factor} dari {@code src} untuk satu baris keluaran.
+     */
+    private void downsampleRow(int y, int[] row) {
+        int[] src = this.src;
+        int factor = this.factor;
+        int top = y * factor;
+        int rows = Math.min(factor, srcHeight - top);
+        int rowStart = srcOffset + top * srcStride;
+
+        for (int x = 0, left = 0; x < width; x++, left += factor) {
+            int cols = Math.min(factor, srcWidth - left);
+            int rs = 0, gs = 0, bs = 0;
+            for (int j = 0, line = rowStart + left; j < rows; j++, line += srcStride) {
+                for (int i = line, stop = line + cols; i < stop; i++) {
+                    int p = src[i];
+                    rs += (p >> 16) & 0xff;
+                    gs += (p >> 8) & 0xff;
+                    bs += p & 0xff;
+                }
+            }
+            int n = rows * cols;
+            row[x] = ((rs / n) << 16) | ((gs / n) << 8) | (bs / n);
+        }
+    }
+
+    /**
+     * Pass vertikal yang memajukan {@value #COLUMN_TILE} kolom bersebelahan bersama-sama
+     * satu baris per langkah. State tiap kolom (sum dan ring buffer) disimpan di array
+     * kecil per stripe; pembacaan plane r/g/b menjadi berurutan, bukan melompat sejauh
+     * {@code width} per piksel.
+     */
+    private void verticalPass(int startX, int endX, int[] tileStack, int[] sums) {
+        int[] pixels = this.pixels;
+        int[] r = this.r, g = this.g, b = this.b;
+        long divMul = this.divMul;
+        int w = width, h = height, radius = this.radius;
+
+        int div = radius * 2 + 1;
+        final int T = COLUMN_TILE;
+        // Layout sums: [rsum, gsum, bsum, rin, gin, bin, rout, gout, bout] x T
+        final int GSUM = T, BSUM = 2 * T, RIN = 3 * T, GIN = 4 * T, BIN = 5 * T;
+        final int ROUT = 6 * T, GOUT = 7 * T, BOUT = 8 * T;
+        // Layout tileStack: slot * 3T + kanal * T + kolom
+
+        for (int x0 = startX; x0 < endX; x0 += T) {
+            int n = Math.min(T, endX - x0);
+            Arrays.fill(sums, 0);
+
+            for (int i = -radius; i <= radius; i++) {
+                int row = clamp(i, h - 1) * w + x0;
+                int slot = (i + radius) * 3 * T;
+                int rbs = radius + 1 - Math.abs(i);
+                for (int c = 0; c < n; c++) {
+                    int vr = r[row + c], vg = g[row + c], vb = b[row + c];
+                    tileStack[slot + c] = vr;
+                    tileStack[slot + T + c] = vg;
+                    tileStack[slot + 2 * T + c] = vb;
+
+                    sums[c] += vr * rbs;
+                    sums[GSUM + c] += vg * rbs;
+                    sums[BSUM + c] += vb * rbs;
+                    if (i > 0) {
+                        sums[RIN + c] += vr;
+                        sums[GIN + c] += vg;
+                        sums[BIN + c] += vb;
+                    } else {
+                        sums[ROUT + c] += vr;
+                        sums[GOUT + c] += vg;
+                        sums[BOUT + c] += vb;
+                    }
+                }
+            }
+
+            int stackPointer = radius;
+            int out = offset + x0;
+            for (int y = 0; y < h; y++) {
+                int stackStart = stackPointer - radius;
+                if (stackStart < 0) stackStart += div;
+                int startSlot = stackStart * 3 * T;
+                if (++stackPointer == div) stackPointer = 0;
+                int nextSlot = stackPointer * 3 * T;
+                int next = Math.min(y + radius + 1, h - 1) * w + x0;
+
+                for (int c = 0; c < n; c++) {
+                    int rsum = sums[c], gsum = sums[GSUM + c], bsum = sums[BSUM + c];
+                    pixels[out + c] = 0xff000000
+                            | (int) ((rsum * divMul) >>> 32) << 16
+                            | (int) ((gsum * divMul) >>> 32) << 8
+                            | (int) ((bsum * divMul) >>> 32);
+
+                    int routsum = sums[ROUT + c] - tileStack[startSlot + c];
+                    int goutsum = sums[GOUT + c] - tileStack[startSlot + T + c];
+                    int boutsum = sums[BOUT + c] - tileStack[startSlot + 2 * T + c];
+                    rsum -= sums[ROUT + c];
+                    gsum -= sums[GOUT + c];
+                    bsum -= sums[BOUT + c];
+
+                    int vr = r[next + c], vg = g[next + c], vb = b[next + c];
+                    tileStack[startSlot + c] = vr;
+                    tileStack[startSlot + T + c] = vg;
+                    tileStack[startSlot + 2 * T + c] = vb;
+
+                    int rinsum = sums[RIN + c] + vr;
+                    int ginsum = sums[GIN + c] + vg;
+                    int binsum = sums[BIN + c] + vb;
+
+                    sums[c] = rsum + rinsum;
+                    sums[GSUM + c] = gsum + ginsum;
+                    sums[BSUM + c] = bsum + binsum;
+
+                    vr = tileStack[nextSlot + c];
+                    vg = tileStack[nextSlot + T + c];
+                    vb = tileStack[nextSlot + 2 * T + c];
+                    sums[ROUT + c] = routsum + vr;
+                    sums[GOUT + c] = goutsum + vg;
+                    sums[BOUT + c] = boutsum + vb;
+                    sums[RIN + c] = rinsum - vr;
+                    sums[GIN + c] = ginsum - vg;
+                    sums[BIN + c] = binsum - vb;
+                }
+                out += stride;
+            }
+        }
+    }
+
+    private void ensureCapacity(int pixelCount) {
+        if (r == null || r.length < pixelCount) {
+            r = new int[pixelCount];
+            g = new int[pixelCount];
+            b = new int[pixelCount];
+        }
+    }
+
+    private Stripe[] obtainStripes(int count, int radius, int width) {
+        int div = radius * 2 + 1;
+        if (stripes.length < count) {
+            Stripe[] grown = new Stripe[count];
+            System.arraycopy(stripes, 0, grown, 0, stripes.length);
+            stripes = grown;
+        }
+        for (int i = 0; i < count; i++) {
+            if (stripes[i] == null) {
+                stripes[i] = new Stripe();
+            }
+            Stripe stripe = stripes[i];
+            if (stripe.stack == null || stripe.stack.length != div * 3) {
+                stripe.stack = new int[div * 3];
+                stripe.tileStack = new int[div * COLUMN_TILE * 3];
+            }
+            if (stripe.row == null || stripe.row.length < width + radius + 1) {
+                stripe.row = new int[width + StackBlurKernel.MAX_RADIUS + 1];
+            }
+        }
+        return stripes;
+    }
+
+    /**
+     * Pengali fixed-point 32.32 untuk membagi dengan {@code divisor} tanpa tabel.
+     * Untuk pembilang &lt; 2^18 (maksimal 255 * 26^2) hasil {@code (n * mul) >>> 32}
+     * sama persis dengan {@code n / divisor}, karena galat pembulatan mul dikali
+     * pembilang tidak pernah mencapai 2^32.
+     */
+    static long reciprocal(int divisor) {
+        return ((1L << 32) + divisor - 1) / divisor;
+    }
+
+    private static int clamp(int val, int max) {
+        return Math.max(0, Math.min(max, val));
+    }
+
+    /**
+     * Satu potongan baris/kolom beserta scratch stack miliknya sendiri.
+     */
+    private final class Stripe implements Runnable {
+        static final int HORIZONTAL = 0;
+        static final int VERTICAL = 1;
+
+        int[] stack;
+        int[] row;
+        int[] tileStack;
+        final int[] tileSums = new int[COLUMN_TILE * 9];
+        int pass, start, end;
+        Throwable error;
+
+        void runPass() {
+            if (pass == HORIZONTAL) {
+                horizontalPass(start, end, stack, row);
+            } else {
+                verticalPass(start, end, tileStack, tileSums);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                runPass();
+            } catch (Throwable t) {
+                error = t;
+            } finally {
+                stripeFinished();
+            }
+        }
+    }
+}
@@ -20,17 +20,51 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
  * SOFTWARE.
  */
-
 package com.nad.blurview.utils;
-import android.view.View;
 
+import android.graphics.Rect;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.view.ViewTreeObserver;
+import android.view.WindowManager;
 
+/**
+ * Menentukan apakah blur view benar-benar bisa dilihat, agar capture dan blur berhenti selama
+ * hasilnya tidak terlihat: view atau leluhurnya GONE/INVISIBLE, alpha efektif 0, di luar layar
+ * atau ter-clip habis (halaman ViewPager lain, item yang di-scroll keluar), window di latar
+ * belakang atau kehilangan fokus, atau tertutup penuh oleh sibling opaque yang digambar di atasnya.
+ * <p>
+ * Pemilik memanggil {@link #update()} di pre-draw sebelum memutuskan refresh. Perubahan status
+ * dilaporkan ke {@link Listener}; saat terlihat lagi pemilik sebaiknya memaksa refresh penuh.
+ * Kembalinya fokus window tidak selalu memicu frame, jadi listener fokus dari
+ * {@link #attachWindowFocusListener()} meng-invalidate view agar refresh berjalan lagi.
+ */
 public class VisibleFrameTracker {
 
+    public interface Listener {
+        void onVisibilityChanged(boolean visible);
+    }
+
     public final View targetView;
 
+    /** Batas jumlah sibling yang diperiksa per frame untuk deteksi tertutup. */
     public int pollingLimit;
 
+    private Listener listener;
+    private boolean pauseWhenUnfocused = true;
+    // Hanya kehilangan fokus yang teramati; window yang tidak pernah fokus tetap di-refresh
+    private boolean focusLost;
+    private boolean visible = true;
+
+    private final Rect visibleRect = new Rect();
+    private final Rect siblingRect = new Rect();
+
+    private final BlurRefreshPreDrawListener preDrawListener = new BlurRefreshPreDrawListener(this, 1);
+    private final ViewTreeObserver.OnWindowFocusChangeListener focusListener = this::onWindowFocusChanged;
+    private ViewTreeObserver preDrawObserver;
+    private ViewTreeObserver focusObserver;
+
     public VisibleFrameTracker(View targetView, int pollingLimit) {
         this.targetView = targetView;
         this.pollingLimit = pollingLimit;
@@ -44,14 +78,149 @@ public class VisibleFrameTracker {
     public View getView() {
         return targetView;
     }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Anggap view tidak terlihat setelah window-nya kehilangan fokus, misalnya tertutup dialog.
+     * Window yang belum pernah fokus (PopupWindow tanpa fokus, overlay) dan window dengan
+     * FLAG_NOT_FOCUSABLE tidak terpengaruh. Matikan untuk mode multi-window, di mana window
+     * tanpa fokus tetap terlihat penuh.
+     */
+    public void setPauseWhenUnfocused(boolean pauseWhenUnfocused) {
+        this.pauseWhenUnfocused = pauseWhenUnfocused;
+    }
+
+    /**
+     * Hasil {@link #update()} terakhir.
+     */
+    public boolean isVisible() {
+        return visible;
+    }
+
+    /**
+     * Hitung ulang status terlihat dan laporkan bila berubah.
+     */
+    public boolean update() {
+        boolean now = computeVisible();
+        if (now != visible) {
+            visible = now;
+            if (listener != null) {
+                listener.onVisibilityChanged(now);
+            }
+        }
+        return now;
+    }
+
+    /**
+     * Panggil {@link #update()} di setiap pre-draw window view ini.
+     */
     public void attachPreDrawListener() {
-        targetView.getViewTreeObserver().addOnPreDrawListener(
-                new BlurRefreshPreDrawListener(this, 1)
-        );
+        if (preDrawObserver != null) return;
+        preDrawObserver = targetView.getViewTreeObserver();
+        preDrawObserver.addOnPreDrawListener(preDrawListener);
+        attachWindowFocusListener();
     }
+
     public void detachPreDrawListener() {
-        targetView.getViewTreeObserver().removeOnPreDrawListener(
-                new BlurRefreshPreDrawListener(this, 1)
-        );
+        if (preDrawObserver != null) {
+            // Observer bisa sudah digabung ke window lain; lepas dari yang sekarang juga
+            if (preDrawObserver.isAlive()) {
+                preDrawObserver.removeOnPreDrawListener(preDrawListener);
+            }
+            ViewTreeObserver current = targetView.getViewTreeObserver();
+            if (current != preDrawObserver && current.isAlive()) {
+                current.removeOnPreDrawListener(preDrawListener);
+            }
+            preDrawObserver = null;
+        }
+        detachWindowFocusListener();
+    }
+
+    public void attachWindowFocusListener() {
+        if (focusObserver != null) return;
+        focusObserver = targetView.getViewTreeObserver();
+        focusObserver.addOnWindowFocusChangeListener(focusListener);
+    }
+
+    public void detachWindowFocusListener() {
+        if (focusObserver == null) return;
+        if (focusObserver.isAlive()) {
+            focusObserver.removeOnWindowFocusChangeListener(focusListener);
+        }
+        ViewTreeObserver current = targetView.getViewTreeObserver();
+        if (current != focusObserver && current.isAlive()) {
+            current.removeOnWindowFocusChangeListener(focusListener);
+        }
+        focusObserver = null;
+        focusLost = false;
+    }
+
+    private void onWindowFocusChanged(boolean hasFocus) {
+        focusLost = !hasFocus;
+        if (pauseWhenUnfocused && update()) {
+            targetView.invalidate();
+        }
+    }
+
+    private boolean computeVisible() {
+        View view = targetView;
+        if (!view.isAttachedToWindow() || view.getWindowVisibility() != View.VISIBLE) return false;
+        if (pauseWhenUnfocused && focusLost && !view.hasWindowFocus() && isFocusableWindow()) return false;
+        if (!view.isShown()) return false;
+
+        View current = view;
+        while (true) {
+            if (current.getAlpha() <= 0f) return false;
+            ViewParent parent = current.getParent();
+            if (!(parent instanceof View)) break;
+            current = (View) parent;
+        }
+
+        // false bila seluruh view ter-clip oleh leluhur atau berada di luar window
+        if (!view.getGlobalVisibleRect(visibleRect)) return false;
+        return !isCovered();
+    }
+
+    private boolean isFocusableWindow() {
+        ViewGroup.LayoutParams params = targetView.getRootView().getLayoutParams();
+        return !(params instanceof WindowManager.LayoutParams)
+                || (((WindowManager.LayoutParams) params).flags & WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE) == 0;
+    }
+
+    /**
+     * Ada sibling (milik view atau leluhurnya) yang digambar di atasnya, opaque, dan menutupi
+     * seluruh area terlihat view.
+     */
+    private boolean isCovered() {
+        View child = targetView;
+        ViewParent parent = child.getParent();
+        int checked = 0;
+        while (parent instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) parent;
+            int index = group.indexOfChild(child);
+            float z = child.getZ();
+            for (int i = group.getChildCount() - 1; i >= 0; i--) {
+                if (checked++ >= pollingLimit) return false;
+                View sibling = group.getChildAt(i);
+                if (sibling == null || sibling == child) continue;
+                // Urutan gambar: Z lebih tinggi, atau Z sama dengan indeks lebih besar
+                float siblingZ = sibling.getZ();
+                boolean above = siblingZ > z || (siblingZ == z && i > index);
+                if (above && covers(sibling)) return true;
+            }
+            child = group;
+            parent = group.getParent();
+        }
+        return false;
+    }
+
+    private boolean covers(View sibling) {
+        // Batas view yang dirotasi lebih besar dari area yang benar-benar digambar
+        return sibling.getVisibility() == View.VISIBLE && sibling.isOpaque()
+                && sibling.getRotation() == 0f && sibling.getRotationX() == 0f && sibling.getRotationY() == 0f
+                && sibling.getGlobalVisibleRect(siblingRect) && siblingRect.contains(visibleRect);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,176 @@
+package com.nad.blurview;
+
+import com.nad.blurview.utils.BoxBlurKernel;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Uji {@link BoxBlurKernel} terhadap triple box blur referensi: tiga box horizontal dijumlah
+ * tanpa normalisasi lalu dibulatkan sekali, kemudian tiga box vertikal yang masing-masing
+ * dibulatkan. Tepi dijepit.
+ */
+public class BoxBlurKernelTest {
+
+    @Test
+    public void blur_matchesReference() {
+        int[][] sizes = {{1, 1}, {1, 13}, {13, 1}, {7, 3}, {33, 17}, {120, 80}};
+        float[] radii = {1f, 2.5f, 7f, 16f, 33.3f, BoxBlurKernel.MAX_RADIUS};
+        BoxBlurKernel kernel = new BoxBlurKernel();
+        for (int[] size : sizes) {
+            for (float radius : radii) {
+                int[] input = randomPixels(size[0] * size[1], (long) radius);
+                int[] actual = input.clone();
+                kernel.blur(actual, 0, size[0], size[1], size[0], radius);
+                assertArrayEquals(size[0] + "x" + size[1] + " r" + radius,
+                        referenceBlur(input, size[0], size[1], radius), actual);
+            }
+        }
+    }
+
+    @Test
+    public void blur_flatColorStaysFlatAndOpaque() {
+        int[] colors = {0xff000000, 0xffffffff, 0xff3c82d7, 0xff010203};
+        int width = 45, height = 31;
+        for (int color : colors) {
+            for (float radius : new float[]{1f, 9.5f, BoxBlurKernel.MAX_RADIUS}) {
+                int[] pixels = new int[width * height];
+                Arrays.fill(pixels, color);
+                new BoxBlurKernel().blur(pixels, 0, width, height, width, radius);
+                for (int p : pixels) {
+                    assertEquals(Integer.toHexString(color) + " r" + radius, color, p);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void blur_largeRadiusSumStaysExact() {
+        // Di MAX_RADIUS jumlah horizontal tak ternormalisasi mencapai 255 * d0 * d1 * d2;
+        // bitmap putih dengan satu titik hitam menguji batas atas itu tanpa overflow
+        int width = 300, height = 220;
+        int[] input = new int[width * height];
+        Arrays.fill(input, 0xffffffff);
+        input[110 * width + 150] = 0xff000000;
+        int[] actual = input.clone();
+        new BoxBlurKernel().blur(actual, 0, width, height, width, BoxBlurKernel.MAX_RADIUS);
+        assertArrayEquals(referenceBlur(input, width, height, BoxBlurKernel.MAX_RADIUS), actual);
+        assertEquals(0xffffffff, actual[0]);
+    }
+
+    @Test
+    public void blur_respectsOffsetAndStride() {
+        int width = 23, height = 11, stride = 31, offset = 2 * stride + 5;
+        for (float radius : new float[]{1f, 4.5f, 40f}) {
+            int[] buffer = randomPixels(offset + height * stride, 11);
+            int[] before = buffer.clone();
+
+            int[] compact = new int[width * height];
+            for (int y = 0; y < height; y++) {
+                System.arraycopy(buffer, offset + y * stride, compact, y * width, width);
+            }
+            int[] expected = referenceBlur(compact, width, height, radius);
+
+            new BoxBlurKernel().blur(buffer, offset, width, height, stride, radius);
+
+            for (int i = 0; i < buffer.length; i++) {
+                int rel = i - offset;
+                int y = rel / stride, x = rel % stride;
+                if (rel >= 0 && y < height && x < width) {
+                    assertEquals("r" + radius + " pixel " + x + "," + y, expected[y * width + x], buffer[i]);
+                } else {
+                    assertEquals("r" + radius + " padding " + i, before[i], buffer[i]);
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void blur_rejectsTooSmallBuffer() {
+        new BoxBlurKernel().blur(new int[10], 0, 4, 3, 4, 2f);
+    }
+
+    private static int[] referenceBlur(int[] input, int width, int height, float radius) {
+        int[] boxes = boxRadii(Math.max(1f, Math.min(radius, BoxBlurKernel.MAX_RADIUS)));
+        long divisor = 1;
+        for (int box : boxes) {
+            divisor *= box * 2 + 1;
+        }
+
+        int[][] planes = new int[3][width * height];
+        for (int c = 0; c < 3; c++) {
+            int shift = 16 - 8 * c;
+            for (int y = 0; y < height; y++) {
+                long[] line = new long[width];
+                for (int x = 0; x < width; x++) {
+                    line[x] = (input[y * width + x] >> shift) & 0xff;
+                }
+                for (int box : boxes) {
+                    long[] next = new long[width];
+                    for (int x = 0; x < width; x++) {
+                        for (int i = -box; i <= box; i++) {
+                            next[x] += line[clamp(x + i, width - 1)];
+                        }
+                    }
+                    line = next;
+                }
+                for (int x = 0; x < width; x++) {
+                    planes[c][y * width + x] = (int) ((line[x] + divisor / 2) / divisor);
+                }
+            }
+            for (int box : boxes) {
+                int size = box * 2 + 1;
+                int[] next = new int[width * height];
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0; x < width; x++) {
+                        int sum = 0;
+                        for (int i = -box; i <= box; i++) {
+                            sum += planes[c][clamp(y + i, height - 1) * width + x];
+                        }
+                        next[y * width + x] = (sum + size / 2) / size;
+                    }
+                }
+                planes[c] = next;
+            }
+        }
+
+        int[] out = new int[width * height];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = 0xff000000 | planes[0][i] << 16 | planes[1][i] << 8 | planes[2][i];
+        }
+        return out;
+    }
+
+    // Sama dengan BoxBlurKernel.boxRadii (Kovesi), ditulis ulang agar referensi berdiri sendiri
+    private static int[] boxRadii(float radius) {
+        double variance = radius * (radius + 2.0) / 6.0;
+        int n = 3;
+        int wl = (int) Math.floor(Math.sqrt(12.0 * variance / n + 1.0));
+        if (wl % 2 == 0) wl--;
+        wl = Math.max(1, wl);
+        int wu = wl + 2;
+        int m = (int) Math.round((12.0 * variance - n * wl * wl - 4.0 * n * wl - 3.0 * n) / (-4.0 * wl - 4.0));
+        int[] out = new int[n];
+        for (int i = 0; i < n; i++) {
+            out[i] = ((i < m ? wl : wu) - 1) / 2;
+        }
+        return out;
+    }
+
+    private static int[] randomPixels(int count, long seed) {
+        Random random = new Random(seed);
+        int[] pixels = new int[count];
+        for (int i = 0; i < count; i++) {
+            pixels[i] = 0xff000000 | random.nextInt(0x1000000);
+        }
+        return pixels;
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(max, value));
+    }
+}
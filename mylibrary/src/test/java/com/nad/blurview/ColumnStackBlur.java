@@ -0,0 +1,225 @@
+package com.nad.blurview;
+
+import java.util.Arrays;
+
+/**
+ * Baseline khusus benchmark: {@code StackBlurKernel} satu thread dengan pass vertikal per kolom,
+ * seperti sebelum pass vertikal diganti versi blok. Pass horizontal sama dengan kernel sekarang,
+ * jadi selisih waktu berasal dari pass vertikal saja. Hasilnya identik dengan kernel.
+ */
+final class ColumnStackBlur {
+
+    private int[] r, g, b, stack, row;
+
+    void blur(int[] pixels, int offset, int width, int height, int stride, int radius) {
+        radius = Math.max(1, Math.min(radius, 25));
+        int count = width * height;
+        if (r == null || r.length < count) {
+            r = new int[count];
+            g = new int[count];
+            b = new int[count];
+        }
+        if (stack == null || stack.length != (radius * 2 + 1) * 3) {
+            stack = new int[(radius * 2 + 1) * 3];
+        }
+        if (row == null || row.length < width + radius + 1) {
+            row = new int[width + radius + 1];
+        }
+        long divMul = reciprocal((radius + 1) * (radius + 1));
+        horizontalPass(pixels, offset, width, height, stride, radius, divMul);
+        verticalPass(pixels, offset, width, height, stride, radius, divMul);
+    }
+
+    private void horizontalPass(int[] src, int offset, int w, int height, int stride, int radius, long divMul) {
+        int[] r = this.r, g = this.g, b = this.b, stack = this.stack, row = this.row;
+        int end = (radius * 2 + 1) * 3;
+        int yi = 0;
+
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(src, offset + y * stride, row, 0, w);
+            Arrays.fill(row, w, w + radius + 1, row[w - 1]);
+
+            int rinsum = 0, ginsum = 0, binsum = 0;
+            int routsum = 0, goutsum = 0, boutsum = 0;
+            int rsum = 0, gsum = 0, bsum = 0;
+
+            for (int i = -radius; i <= radius; i++) {
+                int p = row[i < 0 ? 0 : i];
+                int si = (i + radius) * 3;
+                int vr = (p >> 16) & 0xff, vg = (p >> 8) & 0xff, vb = p & 0xff;
+                stack[si] = vr;
+                stack[si + 1] = vg;
+                stack[si + 2] = vb;
+
+                int rbs = radius + 1 - Math.abs(i);
+                rsum += vr * rbs;
+                gsum += vg * rbs;
+                bsum += vb * rbs;
+
+                if (i > 0) {
+                    rinsum += vr;
+                    ginsum += vg;
+                    binsum += vb;
+                } else {
+                    routsum += vr;
+                    goutsum += vg;
+                    boutsum += vb;
+                }
+            }
+
+            int start = 0;
+            int pointer = radius * 3;
+            int next = radius + 1;
+
+            for (int x = 0; x < w; x++) {
+                r[yi] = (int) ((rsum * divMul) >>> 32);
+                g[yi] = (int) ((gsum * divMul) >>> 32);
+                b[yi] = (int) ((bsum * divMul) >>> 32);
+
+                rsum -= routsum;
+                gsum -= goutsum;
+                bsum -= boutsum;
+
+                routsum -= stack[start];
+                goutsum -= stack[start + 1];
+                boutsum -= stack[start + 2];
+
+                int p = row[next++];
+                int vr = (p >> 16) & 0xff, vg = (p >> 8) & 0xff, vb = p & 0xff;
+                stack[start] = vr;
+                stack[start + 1] = vg;
+                stack[start + 2] = vb;
+
+                rinsum += vr;
+                ginsum += vg;
+                binsum += vb;
+
+                rsum += rinsum;
+                gsum += ginsum;
+                bsum += binsum;
+
+                pointer += 3;
+                if (pointer == end) pointer = 0;
+                vr = stack[pointer];
+                vg = stack[pointer + 1];
+                vb = stack[pointer + 2];
+
+                routsum += vr;
+                goutsum += vg;
+                boutsum += vb;
+
+                rinsum -= vr;
+                ginsum -= vg;
+                binsum -= vb;
+
+                start += 3;
+                if (start == end) start = 0;
+
+                yi++;
+            }
+        }
+    }
+
+    private void verticalPass(int[] pixels, int offset, int w, int h, int stride, int radius, long divMul) {
+        int[] r = this.r, g = this.g, b = this.b, stack = this.stack;
+        int end = (radius * 2 + 1) * 3;
+        int lastRow = (h - 1) * w;
+        // Sampai baris ini, baris berikutnya (y + radius + 1) masih di dalam bitmap
+        int inside = Math.max(0, h - radius - 1);
+
+        for (int x = 0; x < w; x++) {
+            int rinsum = 0, ginsum = 0, binsum = 0;
+            int routsum = 0, goutsum = 0, boutsum = 0;
+            int rsum = 0, gsum = 0, bsum = 0;
+
+            for (int i = -radius; i <= radius; i++) {
+                int yi2 = Math.max(0, Math.min(h - 1, i)) * w + x;
+                int si = (i + radius) * 3;
+                int vr = r[yi2], vg = g[yi2], vb = b[yi2];
+                stack[si] = vr;
+                stack[si + 1] = vg;
+                stack[si + 2] = vb;
+
+                int rbs = radius + 1 - Math.abs(i);
+                rsum += vr * rbs;
+                gsum += vg * rbs;
+                bsum += vb * rbs;
+
+                if (i > 0) {
+                    rinsum += vr;
+                    ginsum += vg;
+                    binsum += vb;
+                } else {
+                    routsum += vr;
+                    goutsum += vg;
+                    boutsum += vb;
+                }
+            }
+
+            int out = offset + x;
+            int start = 0;
+            int pointer = radius * 3;
+            int next = (radius + 1) * w + x;
+            int nextStep = w;
+            int segmentEnd = inside;
+
+            // Dua segmen: baris berikutnya maju per baris, lalu tertahan di baris terakhir
+            for (int y = 0; y < h; ) {
+                for (; y < segmentEnd; y++) {
+                    pixels[out] = 0xff000000
+                            | (int) ((rsum * divMul) >>> 32) << 16
+                            | (int) ((gsum * divMul) >>> 32) << 8
+                            | (int) ((bsum * divMul) >>> 32);
+
+                    rsum -= routsum;
+                    gsum -= goutsum;
+                    bsum -= boutsum;
+
+                    routsum -= stack[start];
+                    goutsum -= stack[start + 1];
+                    boutsum -= stack[start + 2];
+
+                    int vr = r[next], vg = g[next], vb = b[next];
+                    next += nextStep;
+                    stack[start] = vr;
+                    stack[start + 1] = vg;
+                    stack[start + 2] = vb;
+
+                    rinsum += vr;
+                    ginsum += vg;
+                    binsum += vb;
+
+                    rsum += rinsum;
+                    gsum += ginsum;
+                    bsum += binsum;
+
+                    pointer += 3;
+                    if (pointer == end) pointer = 0;
+                    vr = stack[pointer];
+                    vg = stack[pointer + 1];
+                    vb = stack[pointer + 2];
+
+                    routsum += vr;
+                    goutsum += vg;
+                    boutsum += vb;
+
+                    rinsum -= vr;
+                    ginsum -= vg;
+                    binsum -= vb;
+
+                    start += 3;
+                    if (start == end) start = 0;
+
+                    out += stride;
+                }
+                next = lastRow + x;
+                nextStep = 0;
+                segmentEnd = h;
+            }
+        }
+    }
+
+    static long reciprocal(int divisor) {
+        return ((1L << 32) + divisor - 1) / divisor;
+    }
+}
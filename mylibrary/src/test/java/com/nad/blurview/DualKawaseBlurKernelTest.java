@@ -0,0 +1,288 @@
+package com.nad.blurview;
+
+import com.nad.blurview.utils.DualKawaseBlurKernel;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Uji {@link DualKawaseBlurKernel} terhadap referensi per kanal tanpa lane terpaket: filter turun
+ * 4x4 {1,1,1,1 / 1,5,5,1 / 1,5,5,1 / 1,1,1,1} / 32, filter naik {1,5,7,3} / {3,7,5,1} per sumbu
+ * dibagi 256, tepi dijepit dan pembulatan yang sama. Hasil harus sama persis, termasuk alpha.
+ */
+public class DualKawaseBlurKernelTest {
+
+    // Sama dengan tabel di DualKawaseBlurKernel; referensi memakai jadwal iterasi yang sama
+    private static final float[] SIGMA = {0f, 1.87f, 4.18f, 8.57f, 17.2f, 34.4f, 68.8f, 137.6f, 275.2f};
+
+    @Test
+    public void blur_matchesReference() {
+        int[][] sizes = {{1, 1}, {1, 17}, {17, 1}, {2, 2}, {64, 48}, {101, 67}};
+        float[] radii = {1f, 2.7f, 6f, 13.4f, 40f, DualKawaseBlurKernel.MAX_RADIUS};
+        for (int[] size : sizes) {
+            for (float radius : radii) {
+                int[] input = randomPixels(size[0] * size[1], size[0] * 131 + (long) radius);
+                int[] actual = input.clone();
+                new DualKawaseBlurKernel().blur(actual, 0, size[0], size[1], size[0], radius);
+                assertArrayEquals(size[0] + "x" + size[1] + " r" + radius,
+                        reference(input, size[0], size[1], radius), actual);
+            }
+        }
+    }
+
+    @Test
+    public void blur_oddSizesMatchReference() {
+        // Ukuran ganjil di tiap level: kolom/baris terakhir level turun dan piksel ganjil terakhir naik
+        int[][] sizes = {{3, 5}, {7, 3}, {33, 65}, {129, 9}, {95, 77}};
+        for (int[] size : sizes) {
+            for (float radius : new float[]{3f, 25f, DualKawaseBlurKernel.MAX_RADIUS}) {
+                int[] input = randomPixels(size[0] * size[1], size[1] * 7 + (long) radius);
+                int[] actual = input.clone();
+                new DualKawaseBlurKernel().blur(actual, 0, size[0], size[1], size[0], radius);
+                assertArrayEquals(size[0] + "x" + size[1] + " r" + radius,
+                        reference(input, size[0], size[1], radius), actual);
+            }
+        }
+    }
+
+    @Test
+    public void blur_fullLanesDoNotOverflow() {
+        // Putih opaque memenuhi keempat lane 16-bit: jumlah naik mencapai 255 * 256 + 128 = 65408
+        for (float radius : new float[]{1f, 4.5f, 30f, DualKawaseBlurKernel.MAX_RADIUS}) {
+            int[] pixels = new int[77 * 53];
+            Arrays.fill(pixels, 0xffffffff);
+            new DualKawaseBlurKernel().blur(pixels, 0, 77, 53, 77, radius);
+            for (int p : pixels) {
+                assertEquals("r" + radius, 0xffffffff, p);
+            }
+        }
+        // Papan catur hitam/putih: lane bertetangga bergantian penuh dan kosong
+        int[] board = new int[64 * 64];
+        for (int i = 0; i < board.length; i++) {
+            board[i] = ((i / 64 + i % 64) & 1) == 0 ? 0xffffffff : 0x00000000;
+        }
+        for (float radius : new float[]{2f, 9f, 50f}) {
+            int[] actual = board.clone();
+            new DualKawaseBlurKernel().blur(actual, 0, 64, 64, 64, radius);
+            assertArrayEquals("board r" + radius, reference(board, 64, 64, radius), actual);
+        }
+    }
+
+    @Test
+    public void blur_flatColorAndAlphaStayFlat() {
+        for (int color : new int[]{0x00000000, 0x803c82d7, 0xff010203, 0x7fffffff}) {
+            for (float radius : new float[]{1f, 7.3f, DualKawaseBlurKernel.MAX_RADIUS}) {
+                int[] pixels = new int[45 * 31];
+                Arrays.fill(pixels, color);
+                new DualKawaseBlurKernel().blur(pixels, 0, 45, 31, 45, radius);
+                for (int p : pixels) {
+                    assertEquals(Integer.toHexString(color) + " r" + radius, color, p);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void blur_fractionalIterationsBlendAcrossLevels() {
+        // Tepat di bawah dan di atas jumlah iterasi bulat, hasilnya hampir sama; tanpa campuran
+        // pecahan, naik satu level akan melompat
+        int width = 96, height = 72;
+        int[] input = randomPixels(width * height, 3);
+        for (int n = 2; n <= 4; n++) {
+            double radius = -1 + Math.sqrt(1 + 6.0 * SIGMA[n] * SIGMA[n]);
+            int[] below = input.clone(), above = input.clone();
+            new DualKawaseBlurKernel().blur(below, 0, width, height, width, (float) (radius * 0.995));
+            new DualKawaseBlurKernel().blur(above, 0, width, height, width, (float) (radius * 1.005));
+            double difference = meanDifference(below, above);
+            assertTrue("iteration " + n + " difference " + difference, difference < 0.5);
+        }
+    }
+
+    @Test
+    public void blur_respectsOffsetAndStride() {
+        int width = 29, height = 13, stride = 37, offset = 2 * stride + 5;
+        for (float radius : new float[]{2.5f, 20f}) {
+            int[] buffer = randomPixels(offset + height * stride, 11);
+            int[] before = buffer.clone();
+
+            int[] compact = new int[width * height];
+            for (int y = 0; y < height; y++) {
+                System.arraycopy(buffer, offset + y * stride, compact, y * width, width);
+            }
+            int[] expected = reference(compact, width, height, radius);
+
+            new DualKawaseBlurKernel().blur(buffer, offset, width, height, stride, radius);
+
+            for (int i = 0; i < buffer.length; i++) {
+                int rel = i - offset;
+                int y = rel / stride, x = rel % stride;
+                if (rel >= 0 && y < height && x < width) {
+                    assertEquals("r" + radius + " pixel " + x + "," + y, expected[y * width + x], buffer[i]);
+                } else {
+                    assertEquals("r" + radius + " padding " + i, before[i], buffer[i]);
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void blur_rejectsTooSmallBuffer() {
+        new DualKawaseBlurKernel().blur(new int[10], 0, 4, 3, 4, 2f);
+    }
+
+    private static int[] reference(int[] input, int width, int height, float radius) {
+        radius = Math.max(1f, Math.min(radius, DualKawaseBlurKernel.MAX_RADIUS));
+        int maxLevel = 0;
+        int w = width, h = height;
+        while (maxLevel < 8 && Math.min(w, h) >= 2) {
+            w = (w + 1) >> 1;
+            h = (h + 1) >> 1;
+            maxLevel++;
+        }
+        float iterations = Math.min(iterations((float) Math.sqrt(radius * (radius + 2.0) / 6.0)), maxLevel);
+        int n = (int) iterations;
+        int fraction = Math.round((iterations - n) * 256f);
+        if (fraction == 256) {
+            n++;
+            fraction = 0;
+        }
+        int deepest = fraction > 0 ? n + 1 : n;
+        if (deepest == 0) return input.clone();
+
+        int[][][] levels = new int[deepest + 1][][];
+        levels[0] = unpack(input, width, height);
+        for (int k = 1; k <= deepest; k++) {
+            levels[k] = downsample(levels[k - 1]);
+        }
+        if (fraction > 0) {
+            int[][] more = upsample(levels[n + 1], levels[n][0].length, levels[n].length);
+            mix(levels[n], more, fraction);
+        }
+        int[][] current = levels[n];
+        for (int k = n; k >= 1; k--) {
+            current = upsample(current, levels[k - 1][0].length, levels[k - 1].length);
+        }
+        return pack(current);
+    }
+
+    private static float iterations(float sigma) {
+        for (int n = 0; n < SIGMA.length - 1; n++) {
+            float low = SIGMA[n] * SIGMA[n], high = SIGMA[n + 1] * SIGMA[n + 1];
+            if (sigma * sigma <= high) {
+                return n + Math.max(0f, sigma * sigma - low) / (high - low);
+            }
+        }
+        return SIGMA.length - 1;
+    }
+
+    // Level disimpan sebagai [y][x] berisi ARGB; tiap kanal dihitung terpisah
+    private static int[][] downsample(int[][] src) {
+        int sh = src.length, sw = src[0].length;
+        int dh = (sh + 1) >> 1, dw = (sw + 1) >> 1;
+        int[] weights = {1, 5, 5, 1};
+        int[][] dst = new int[dh][dw];
+        for (int y = 0; y < dh; y++) {
+            for (int x = 0; x < dw; x++) {
+                int value = 0;
+                for (int shift = 0; shift < 32; shift += 8) {
+                    int sum = 0;
+                    for (int dy = 0; dy < 4; dy++) {
+                        for (int dx = 0; dx < 4; dx++) {
+                            boolean inner = (dy == 1 || dy == 2) && (dx == 1 || dx == 2);
+                            boolean ring = dy == 0 || dy == 3 || dx == 0 || dx == 3;
+                            int weight = inner ? 5 : ring ? 1 : 0;
+                            int p = src[clamp(2 * y - 1 + dy, sh)][clamp(2 * x - 1 + dx, sw)];
+                            sum += weight * ((p >>> shift) & 0xff);
+                        }
+                    }
+                    value |= ((sum + 16) >> 5) << shift;
+                }
+                dst[y][x] = value;
+            }
+        }
+        return dst;
+    }
+
+    private static int[][] upsample(int[][] src, int dw, int dh) {
+        int sh = src.length, sw = src[0].length;
+        int[][] dst = new int[dh][dw];
+        for (int y = 0; y < dh; y++) {
+            int[] wy = (y & 1) == 0 ? new int[]{1, 5, 7, 3} : new int[]{3, 7, 5, 1};
+            int ry = (y >> 1) - ((y & 1) == 0 ? 2 : 1);
+            for (int x = 0; x < dw; x++) {
+                int[] wx = (x & 1) == 0 ? new int[]{1, 5, 7, 3} : new int[]{3, 7, 5, 1};
+                int rx = (x >> 1) - ((x & 1) == 0 ? 2 : 1);
+                int value = 0;
+                for (int shift = 0; shift < 32; shift += 8) {
+                    int sum = 0;
+                    for (int i = 0; i < 4; i++) {
+                        for (int j = 0; j < 4; j++) {
+                            int p = src[clamp(ry + i, sh)][clamp(rx + j, sw)];
+                            sum += wy[i] * wx[j] * ((p >>> shift) & 0xff);
+                        }
+                    }
+                    value |= ((sum + 128) >> 8) << shift;
+                }
+                dst[y][x] = value;
+            }
+        }
+        return dst;
+    }
+
+    private static void mix(int[][] dst, int[][] src, int fraction) {
+        for (int y = 0; y < dst.length; y++) {
+            for (int x = 0; x < dst[0].length; x++) {
+                int value = 0;
+                for (int shift = 0; shift < 32; shift += 8) {
+                    int a = (dst[y][x] >>> shift) & 0xff, b = (src[y][x] >>> shift) & 0xff;
+                    value |= ((a * (256 - fraction) + b * fraction + 128) >> 8) << shift;
+                }
+                dst[y][x] = value;
+            }
+        }
+    }
+
+    private static int[][] unpack(int[] pixels, int width, int height) {
+        int[][] out = new int[height][width];
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(pixels, y * width, out[y], 0, width);
+        }
+        return out;
+    }
+
+    private static int[] pack(int[][] rows) {
+        int width = rows[0].length;
+        int[] out = new int[rows.length * width];
+        for (int y = 0; y < rows.length; y++) {
+            System.arraycopy(rows[y], 0, out, y * width, width);
+        }
+        return out;
+    }
+
+    private static double meanDifference(int[] a, int[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            for (int shift = 0; shift < 32; shift += 8) {
+                sum += Math.abs(((a[i] >>> shift) & 0xff) - ((b[i] >>> shift) & 0xff));
+            }
+        }
+        return sum / (a.length * 4.0);
+    }
+
+    private static int[] randomPixels(int count, long seed) {
+        Random random = new Random(seed);
+        int[] pixels = new int[count];
+        for (int i = 0; i < count; i++) {
+            pixels[i] = random.nextInt();
+        }
+        return pixels;
+    }
+
+    private static int clamp(int i, int size) {
+        return i < 0 ? 0 : i >= size ? size - 1 : i;
+    }
+}
@@ -0,0 +1,212 @@
+package com.nad.blurview;
+
+import com.nad.blurview.utils.GaussianIirBlurKernel;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Uji {@link GaussianIirBlurKernel} terhadap filter Young-van Vliet referensi dalam double yang
+ * tidak memakai matriks tepi: tiap baris/kolom diperpanjang dengan nilai tepinya sampai respons
+ * meluruh, difilter maju dan mundur, lalu dipotong. Selisih pembulatan float maksimal 1.
+ */
+public class GaussianIirBlurKernelTest {
+
+    private static final int TOLERANCE = 1;
+
+    @Test
+    public void blur_matchesReference() {
+        int[][] sizes = {{1, 1}, {1, 9}, {9, 1}, {33, 17}, {96, 64}};
+        float[] radii = {1f, 3f, 16f, 60f, GaussianIirBlurKernel.MAX_RADIUS};
+        for (int[] size : sizes) {
+            for (float radius : radii) {
+                assertClose(size[0], size[1], radius);
+            }
+        }
+    }
+
+    @Test
+    public void blur_rightAndBottomEdgeMatchReference() {
+        // Matriks computeBoundary hanya dipakai di tepi kanan/bawah; gradien tajam di sana
+        int width = 48, height = 40;
+        int[] input = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                boolean bright = x >= width - 3 || y >= height - 3;
+                input[y * width + x] = bright ? 0xffffffff : 0xff102030;
+            }
+        }
+        for (float radius : new float[]{1f, 2.5f, 9f, 40f}) {
+            int[] actual = input.clone();
+            new GaussianIirBlurKernel().blur(actual, 0, width, height, width, radius);
+            assertClose("edge r" + radius, reference(input, width, height, radius), actual);
+        }
+    }
+
+    @Test
+    public void blur_fractionalRadius() {
+        for (float radius : new float[]{1.25f, 2.5f, 7.75f, 30.5f}) {
+            assertClose(41, 29, radius);
+        }
+        // Radius pecahan tidak dibulatkan: 4.5 berbeda dari 4 dan 5
+        int[] input = randomPixels(41 * 29, 5);
+        int[] four = blur(input, 41, 29, 4f), half = blur(input, 41, 29, 4.5f), five = blur(input, 41, 29, 5f);
+        assertFalse(Arrays.equals(four, half));
+        assertFalse(Arrays.equals(five, half));
+    }
+
+    @Test
+    public void blur_heightsOneToThree() {
+        // Tinggi 1-3: baris edge* menggantikan baris plane di kedua arah
+        for (int height = 1; height <= 3; height++) {
+            for (float radius : new float[]{1f, 4.5f, 25f}) {
+                assertClose(37, height, radius);
+                assertClose(height, 37, radius);
+            }
+        }
+    }
+
+    @Test
+    public void blur_flatColorStaysFlat() {
+        for (int color : new int[]{0xff000000, 0xffffffff, 0xff3c82d7}) {
+            for (float radius : new float[]{1f, 7.5f, GaussianIirBlurKernel.MAX_RADIUS}) {
+                int[] pixels = new int[23 * 3];
+                Arrays.fill(pixels, color);
+                pixels = blur(pixels, 23, 3, radius);
+                for (int p : pixels) {
+                    assertEquals(Integer.toHexString(color) + " r" + radius, color, p);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void blur_respectsOffsetAndStride() {
+        int width = 23, height = 11, stride = 31, offset = 2 * stride + 5;
+        int[] buffer = randomPixels(offset + height * stride, 11);
+        int[] before = buffer.clone();
+
+        int[] compact = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(buffer, offset + y * stride, compact, y * width, width);
+        }
+        int[] expected = blur(compact, width, height, 6.5f);
+
+        new GaussianIirBlurKernel().blur(buffer, offset, width, height, stride, 6.5f);
+
+        for (int i = 0; i < buffer.length; i++) {
+            int rel = i - offset;
+            int y = rel / stride, x = rel % stride;
+            if (rel >= 0 && y < height && x < width) {
+                assertEquals("pixel " + x + "," + y, expected[y * width + x], buffer[i]);
+            } else {
+                assertEquals("padding " + i, before[i], buffer[i]);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void blur_rejectsTooSmallBuffer() {
+        new GaussianIirBlurKernel().blur(new int[10], 0, 4, 3, 4, 2f);
+    }
+
+    private static void assertClose(int width, int height, float radius) {
+        int[] input = randomPixels(width * height, width * 31 + height);
+        assertClose(width + "x" + height + " r" + radius,
+                reference(input, width, height, radius), blur(input, width, height, radius));
+    }
+
+    private static void assertClose(String message, int[] expected, int[] actual) {
+        for (int i = 0; i < expected.length; i++) {
+            for (int shift = 0; shift <= 16; shift += 8) {
+                int e = (expected[i] >> shift) & 0xff, a = (actual[i] >> shift) & 0xff;
+                if (Math.abs(e - a) > TOLERANCE) {
+                    fail(message + " pixel " + i + " channel " + shift + ": expected " + e + " but was " + a);
+                }
+            }
+            assertEquals(message + " alpha " + i, 0xff, actual[i] >>> 24);
+        }
+    }
+
+    private static int[] blur(int[] input, int width, int height, float radius) {
+        int[] pixels = input.clone();
+        new GaussianIirBlurKernel().blur(pixels, 0, width, height, width, radius);
+        return pixels;
+    }
+
+    private static int[] reference(int[] input, int width, int height, float radius) {
+        radius = Math.max(1f, Math.min(radius, GaussianIirBlurKernel.MAX_RADIUS));
+        double sigma = Math.sqrt(radius * (radius + 2.0) / 6.0);
+        double q = sigma >= 2.5 ? 0.98711 * sigma - 0.96330 : 3.97156 - 4.14554 * Math.sqrt(1.0 - 0.26891 * sigma);
+        double q2 = q * q, q3 = q2 * q;
+        double b0 = 1.57825 + 2.44413 * q + 1.4281 * q2 + 0.422205 * q3;
+        double[] c = {(2.44413 * q + 2.85619 * q2 + 1.26661 * q3) / b0, -(1.4281 * q2 + 1.26661 * q3) / b0,
+                0.422205 * q3 / b0};
+        int pad = (int) Math.ceil(20 * q) + 64;
+
+        int[] out = new int[width * height];
+        for (int shift = 0; shift <= 16; shift += 8) {
+            double[] plane = new double[width * height];
+            for (int i = 0; i < plane.length; i++) {
+                plane[i] = (input[i] >> shift) & 0xff;
+            }
+            // Kernel membulatkan ke byte di antara pass horizontal dan vertikal
+            for (int y = 0; y < height; y++) {
+                filter(plane, y * width, 1, width, c, pad);
+            }
+            for (int i = 0; i < plane.length; i++) {
+                plane[i] = Math.max(0, Math.min(255, Math.floor(plane[i] + 0.5)));
+            }
+            for (int x = 0; x < width; x++) {
+                filter(plane, x, width, height, c, pad);
+            }
+            for (int i = 0; i < plane.length; i++) {
+                out[i] |= (int) Math.max(0, Math.min(255, Math.floor(plane[i] + 0.5))) << shift;
+            }
+        }
+        for (int i = 0; i < out.length; i++) {
+            out[i] |= 0xff000000;
+        }
+        return out;
+    }
+
+    private static void filter(double[] data, int start, int step, int count, double[] c, int pad) {
+        double gain = 1 - c[0] - c[1] - c[2];
+        double[] line = new double[count + 2 * pad];
+        for (int i = 0; i < line.length; i++) {
+            line[i] = data[start + Math.max(0, Math.min(count - 1, i - pad)) * step];
+        }
+        double p1 = line[0], p2 = p1, p3 = p1;
+        for (int i = 0; i < line.length; i++) {
+            double v = gain * line[i] + c[0] * p1 + c[1] * p2 + c[2] * p3;
+            line[i] = v;
+            p3 = p2;
+            p2 = p1;
+            p1 = v;
+        }
+        p2 = p3 = p1;
+        for (int i = line.length - 1; i >= 0; i--) {
+            double v = gain * line[i] + c[0] * p1 + c[1] * p2 + c[2] * p3;
+            line[i] = v;
+            p3 = p2;
+            p2 = p1;
+            p1 = v;
+        }
+        for (int i = 0; i < count; i++) {
+            data[start + i * step] = line[pad + i];
+        }
+    }
+
+    private static int[] randomPixels(int count, long seed) {
+        Random random = new Random(seed);
+        int[] pixels = new int[count];
+        for (int i = 0; i < count; i++) {
+            pixels[i] = 0xff000000 | random.nextInt(0x1000000);
+        }
+        return pixels;
+    }
+}
@@ -0,0 +1,207 @@
+package com.nad.blurview;
+
+/**
+ * Baseline khusus benchmark: loop {@code BlurUtils.applyStackBlur} awal, hanya diubah untuk
+ * bekerja di {@code int[]} tanpa Bitmap. Masih memakai stack {@code int[][]}, {@code % div},
+ * tabel {@code vmin} dan tabel pembagi {@code dv}.
+ * <p>
+ * Hasilnya tidak dibandingkan dengan kernel: loop awal membagi dengan {@code (2r + 1)^2}, bukan
+ * jumlah bobot {@code (r + 1)^2}, dan mengisi stack vertikal hanya dari baris pertama. Yang
+ * diukur hanya waktunya.
+ */
+final class OriginalStackBlur {
+
+    private int[] r, g, b, dv, vmin;
+    private int[][] stack;
+
+    void blur(int[] pixels, int w, int h, int radius) {
+        ensureCapacity(w * h, Math.max(w, h), radius);
+        int[] r = this.r, g = this.g, b = this.b, dv = this.dv, vmin = this.vmin;
+        int[][] stack = this.stack;
+
+        int div = radius * 2 + 1;
+        int yi = 0, yw = 0;
+
+        for (int y = 0; y < h; y++) {
+            int rinsum = 0, ginsum = 0, binsum = 0;
+            int routsum = 0, goutsum = 0, boutsum = 0;
+            int rsum = 0, gsum = 0, bsum = 0;
+
+            for (int i = -radius; i <= radius; i++) {
+                int x = clamp(i, w - 1);
+                int p = pixels[yi + x];
+                int[] sir = stack[i + radius];
+                sir[0] = (p >> 16) & 0xff;
+                sir[1] = (p >> 8) & 0xff;
+                sir[2] = p & 0xff;
+
+                int rbs = radius + 1 - Math.abs(i);
+                rsum += sir[0] * rbs;
+                gsum += sir[1] * rbs;
+                bsum += sir[2] * rbs;
+
+                if (i > 0) {
+                    rinsum += sir[0];
+                    ginsum += sir[1];
+                    binsum += sir[2];
+                } else {
+                    routsum += sir[0];
+                    goutsum += sir[1];
+                    boutsum += sir[2];
+                }
+            }
+
+            int stackPointer = radius;
+
+            for (int x = 0; x < w; x++) {
+                r[yi] = dv[rsum];
+                g[yi] = dv[gsum];
+                b[yi] = dv[bsum];
+
+                rsum -= routsum;
+                gsum -= goutsum;
+                bsum -= boutsum;
+
+                int stackStart = (stackPointer - radius + div) % div;
+                int[] sir = stack[stackStart];
+
+                routsum -= sir[0];
+                goutsum -= sir[1];
+                boutsum -= sir[2];
+
+                int nextPixelIndex = yw + vmin[Math.min(x + radius + 1, w - 1)];
+                int p = pixels[nextPixelIndex];
+                sir[0] = (p >> 16) & 0xff;
+                sir[1] = (p >> 8) & 0xff;
+                sir[2] = p & 0xff;
+
+                rinsum += sir[0];
+                ginsum += sir[1];
+                binsum += sir[2];
+
+                rsum += rinsum;
+                gsum += ginsum;
+                bsum += binsum;
+
+                stackPointer = (stackPointer + 1) % div;
+                sir = stack[stackPointer];
+
+                routsum += sir[0];
+                goutsum += sir[1];
+                boutsum += sir[2];
+
+                rinsum -= sir[0];
+                ginsum -= sir[1];
+                binsum -= sir[2];
+
+                yi++;
+            }
+            yw += w;
+        }
+
+        for (int x = 0; x < w; x++) {
+            int rinsum = 0, ginsum = 0, binsum = 0;
+            int routsum = 0, goutsum = 0, boutsum = 0;
+            int rsum = 0, gsum = 0, bsum = 0;
+
+            int yp = -radius * w;
+            for (int i = -radius; i <= radius; i++) {
+                int yi2 = clamp(yp, h - 1) * w + x;
+                int[] sir = stack[i + radius];
+
+                sir[0] = r[yi2];
+                sir[1] = g[yi2];
+                sir[2] = b[yi2];
+
+                int rbs = radius + 1 - Math.abs(i);
+                rsum += r[yi2] * rbs;
+                gsum += g[yi2] * rbs;
+                bsum += b[yi2] * rbs;
+
+                if (i > 0) {
+                    rinsum += sir[0];
+                    ginsum += sir[1];
+                    binsum += sir[2];
+                } else {
+                    routsum += sir[0];
+                    goutsum += sir[1];
+                    boutsum += sir[2];
+                }
+
+                if (i < h - 1) yp++;
+            }
+
+            int yi2 = x;
+            int stackPointer = radius;
+            for (int y = 0; y < h; y++) {
+                pixels[yi2] = (0xff000000) | (dv[rsum] << 16) | (dv[gsum] << 8) | dv[bsum];
+
+                rsum -= routsum;
+                gsum -= goutsum;
+                bsum -= boutsum;
+
+                int stackStart = (stackPointer - radius + div) % div;
+                int[] sir = stack[stackStart];
+
+                routsum -= sir[0];
+                goutsum -= sir[1];
+                boutsum -= sir[2];
+
+                int p = x + vmin[Math.min(y + radius + 1, h - 1)] * w;
+                sir[0] = r[p];
+                sir[1] = g[p];
+                sir[2] = b[p];
+
+                rinsum += sir[0];
+                ginsum += sir[1];
+                binsum += sir[2];
+
+                rsum += rinsum;
+                gsum += ginsum;
+                bsum += binsum;
+
+                stackPointer = (stackPointer + 1) % div;
+                sir = stack[stackPointer];
+
+                routsum += sir[0];
+                goutsum += sir[1];
+                boutsum += sir[2];
+
+                rinsum -= sir[0];
+                ginsum -= sir[1];
+                binsum -= sir[2];
+
+                yi2 += w;
+            }
+        }
+    }
+
+    private void ensureCapacity(int pixelCount, int maxDim, int radius) {
+        if (r == null || r.length < pixelCount) {
+            r = new int[pixelCount];
+            g = new int[pixelCount];
+            b = new int[pixelCount];
+        }
+
+        int div = radius * 2 + 1;
+        if (dv == null || dv.length < 256 * div * div) {
+            dv = new int[256 * div * div];
+            for (int i = 0; i < dv.length; i++) {
+                dv[i] = i / (div * div);
+            }
+        }
+
+        if (stack == null || stack.length != div) {
+            stack = new int[div][3];
+        }
+
+        if (vmin == null || vmin.length < maxDim) {
+            vmin = new int[maxDim];
+            for (int i = 0; i < maxDim; i++) vmin[i] = i;
+        }
+    }
+
+    private static int clamp(int val, int max) {
+        return Math.max(0, Math.min(max, val));
+    }
+}
@@ -0,0 +1,93 @@
+package com.nad.blurview;
+
+import com.nad.blurview.utils.PackedStackBlurKernel;
+import com.nad.blurview.utils.StackBlurKernel;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Uji {@link PackedStackBlurKernel}: hasil lane merah/biru terpaket harus sama persis dengan
+ * kernel planar {@link StackBlurKernel}.
+ */
+public class PackedStackBlurKernelTest {
+
+    @Test
+    public void blur_matchesPlanarKernel() {
+        int[][] sizes = {{1, 1}, {1, 9}, {9, 1}, {7, 3}, {33, 17}, {64, 64}, {200, 41}};
+        int[] radii = {1, 2, 5, 16, StackBlurKernel.MAX_RADIUS};
+        StackBlurKernel planar = new StackBlurKernel();
+        PackedStackBlurKernel packed = new PackedStackBlurKernel();
+        for (int[] size : sizes) {
+            for (int radius : radii) {
+                int[] expected = randomPixels(size[0] * size[1], radius);
+                int[] actual = expected.clone();
+                planar.blur(expected, 0, size[0], size[1], size[0], radius);
+                packed.blur(actual, 0, size[0], size[1], size[0], radius);
+                assertArrayEquals(size[0] + "x" + size[1] + " r" + radius, expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void blur_whiteStaysWhite() {
+        // Lane 32-bit penuh: jumlah berbobot 255 * (r + 1)^2 tidak boleh bocor ke lane lain
+        int radius = StackBlurKernel.MAX_RADIUS;
+        int[] pixels = new int[60 * 60];
+        java.util.Arrays.fill(pixels, 0xffffffff);
+        new PackedStackBlurKernel().blur(pixels, 0, 60, 60, 60, radius);
+        for (int p : pixels) {
+            assertEquals(0xffffffff, p);
+        }
+    }
+
+    @Test
+    public void blur_respectsOffsetAndStride() {
+        int width = 23, height = 11, stride = 31, offset = 2 * stride + 5;
+        for (int radius : new int[]{1, 4, 30}) {
+            int[] buffer = randomPixels(offset + height * stride, 11 + radius);
+            int[] before = buffer.clone();
+
+            int[] expected = new int[width * height];
+            for (int y = 0; y < height; y++) {
+                System.arraycopy(buffer, offset + y * stride, expected, y * width, width);
+            }
+            new StackBlurKernel().blur(expected, 0, width, height, width, radius);
+
+            new PackedStackBlurKernel().blur(buffer, offset, width, height, stride, radius);
+
+            for (int i = 0; i < buffer.length; i++) {
+                int rel = i - offset;
+                int y = rel / stride, x = rel % stride;
+                if (rel >= 0 && y < height && x < width) {
+                    assertEquals("r" + radius + " pixel " + x + "," + y, expected[y * width + x], buffer[i]);
+                } else {
+                    assertEquals("r" + radius + " padding " + i, before[i], buffer[i]);
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void blur_rejectsTooSmallBuffer() {
+        new PackedStackBlurKernel().blur(new int[10], 0, 4, 3, 4, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void blur_rejectsOverflowingStride() {
+        // (height - 1) * stride melewati Integer.MAX_VALUE; dengan int pemeriksaan ini lolos
+        new PackedStackBlurKernel().blur(new int[64], 0, 4, 3, Integer.MAX_VALUE / 2 + 1, 2);
+    }
+
+    private static int[] randomPixels(int count, long seed) {
+        Random random = new Random(seed);
+        int[] pixels = new int[count];
+        for (int i = 0; i < count; i++) {
+            pixels[i] = 0xff000000 | random.nextInt(0x1000000);
+        }
+        return pixels;
+    }
+}
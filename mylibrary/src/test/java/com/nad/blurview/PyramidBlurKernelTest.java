@@ -0,0 +1,97 @@
+package com.nad.blurview;
+
+import com.nad.blurview.utils.PyramidBlurKernel;
+import com.nad.blurview.utils.StackBlurKernel;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Uji jalur level dan upsample {@link PyramidBlurKernel}, yaitu radius di atas
+ * {@link StackBlurKernel#MAX_RADIUS}.
+ */
+public class PyramidBlurKernelTest {
+
+    private static final float[] RADII = {26f, 40f, PyramidBlurKernel.MAX_RADIUS};
+
+    @Test
+    public void blur_flatColorStaysFlat() {
+        int[][] sizes = {{1, 1}, {1, 37}, {37, 1}, {61, 43}, {200, 130}};
+        for (int[] size : sizes) {
+            for (float radius : RADII) {
+                int[] pixels = new int[size[0] * size[1]];
+                java.util.Arrays.fill(pixels, 0xff3c82d7);
+                new PyramidBlurKernel(new StackBlurKernel()).blur(pixels, 0, size[0], size[1], size[0], radius);
+                for (int i = 0; i < pixels.length; i++) {
+                    assertEquals(size[0] + "x" + size[1] + " r" + radius + " pixel " + i, 0xff3c82d7, pixels[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void blur_respectsOffsetAndStride() {
+        int width = 83, height = 57, stride = 97, offset = 3 * stride + 7;
+        for (float radius : RADII) {
+            int[] buffer = randomPixels(offset + height * stride, (long) radius);
+            int[] before = buffer.clone();
+
+            int[] packed = new int[width * height];
+            for (int y = 0; y < height; y++) {
+                System.arraycopy(buffer, offset + y * stride, packed, y * width, width);
+            }
+            new PyramidBlurKernel(new StackBlurKernel()).blur(packed, 0, width, height, width, radius);
+
+            new PyramidBlurKernel(new StackBlurKernel()).blur(buffer, offset, width, height, stride, radius);
+
+            for (int i = 0; i < buffer.length; i++) {
+                int rel = i - offset;
+                int y = rel / stride, x = rel % stride;
+                if (rel >= 0 && y < height && x < width) {
+                    assertEquals("r" + radius + " pixel " + x + "," + y, packed[y * width + x], buffer[i]);
+                } else {
+                    assertEquals("r" + radius + " padding " + i, before[i], buffer[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void blur_largeRadiusSmoothsMoreThanStackMax() {
+        int width = 160, height = 120;
+        int[] input = randomPixels(width * height, 7);
+        int[] stack = input.clone();
+        new StackBlurKernel().blur(stack, 0, width, height, width, StackBlurKernel.MAX_RADIUS);
+        double previous = variance(stack);
+        for (float radius : RADII) {
+            int[] pixels = input.clone();
+            new PyramidBlurKernel(new StackBlurKernel()).blur(pixels, 0, width, height, width, radius);
+            double current = variance(pixels);
+            assertTrue("r" + radius + " variance " + current + " >= " + previous, current < previous);
+            previous = current;
+        }
+    }
+
+    private static double variance(int[] pixels) {
+        double sum = 0, squares = 0;
+        for (int p : pixels) {
+            int g = (p >> 8) & 0xff;
+            sum += g;
+            squares += g * g;
+        }
+        double mean = sum / pixels.length;
+        return squares / pixels.length - mean * mean;
+    }
+
+    private static int[] randomPixels(int count, long seed) {
+        Random random = new Random(seed);
+        int[] pixels = new int[count];
+        for (int i = 0; i < count; i++) {
+            pixels[i] = 0xff000000 | random.nextInt(0x1000000);
+        }
+        return pixels;
+    }
+}
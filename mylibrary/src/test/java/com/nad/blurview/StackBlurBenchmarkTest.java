@@ -0,0 +1,91 @@
+package com.nad.blurview;
+
+import com.nad.blurview.utils.StackBlurKernel;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Benchmark JVM {@link StackBlurKernel} terhadap baseline lama yang disimpan khusus di test:
+ * {@link OriginalStackBlur} (loop {@code applyStackBlur} awal) dan {@link ColumnStackBlur} (pass
+ * vertikal per kolom). Hanya berjalan dengan
+ * {@code ./gradlew :mylibrary:testDebugUnitTest -Pbenchmark --tests '*StackBlurBenchmarkTest'};
+ * angka dicetak ke stdout. Semua berjalan satu thread, waktu adalah median per blur.
+ */
+public class StackBlurBenchmarkTest {
+
+    private static final int[][] SIZES = {{192, 320}, {1080, 300}, {1080, 1920}};
+    private static final int RADIUS = 16;
+
+    private int[] input, pixels;
+
+    @Test
+    public void columnBaseline_matchesKernel() {
+        // Baseline harus menghitung blur yang sama, jika tidak perbandingan waktunya tidak adil
+        for (int radius : new int[]{1, 7, StackBlurKernel.MAX_RADIUS}) {
+            int[] expected = randomPixels(97 * 61, radius);
+            int[] actual = expected.clone();
+            new StackBlurKernel().blur(expected, 0, 97, 61, 97, radius);
+            new ColumnStackBlur().blur(actual, 0, 97, 61, 97, radius);
+            assertArrayEquals("r" + radius, expected, actual);
+        }
+    }
+
+    @Test
+    public void benchmark() {
+        Assume.assumeTrue(Boolean.getBoolean("nadblur.benchmark"));
+        StackBlurKernel kernel = new StackBlurKernel();
+        ColumnStackBlur column = new ColumnStackBlur();
+        OriginalStackBlur original = new OriginalStackBlur();
+
+        System.out.printf("%-10s %12s %12s %12s%n", "size", "original", "column", "kernel");
+        for (int[] size : SIZES) {
+            int width = size[0], height = size[1];
+            input = randomPixels(width * height, 1);
+            pixels = new int[input.length];
+            int runs = Math.max(9, 20_000_000 / (width * height));
+
+            long[] us = medians(runs,
+                    () -> original.blur(pixels, width, height, RADIUS),
+                    () -> column.blur(pixels, 0, width, height, width, RADIUS),
+                    () -> kernel.blur(pixels, 0, width, height, width, RADIUS));
+            System.out.printf("%-10s %9d us %9d us %9d us%n", width + "x" + height, us[0], us[1], us[2]);
+        }
+    }
+
+    /**
+     * Median waktu tiap varian dalam mikrodetik. Varian dijalankan bergiliran agar gangguan dari
+     * JIT, GC atau thread lain terbagi rata; input disalin ulang sebelum tiap blur.
+     */
+    private long[] medians(int runs, Runnable... variants) {
+        long[][] times = new long[variants.length][runs];
+        for (int i = -runs; i < runs; i++) {
+            for (int v = 0; v < variants.length; v++) {
+                System.arraycopy(input, 0, pixels, 0, input.length);
+                long start = System.nanoTime();
+                variants[v].run();
+                if (i >= 0) times[v][i] = System.nanoTime() - start;
+            }
+        }
+        long[] result = new long[variants.length];
+        for (int v = 0; v < variants.length; v++) {
+            Arrays.sort(times[v]);
+            result[v] = times[v][runs / 2] / 1000;
+        }
+        return result;
+    }
+
+    private static int[] randomPixels(int count, long seed) {
+        Random random = new Random(seed);
+        int[] pixels = new int[count];
+        for (int i = 0; i < count; i++) {
+            pixels[i] = 0xff000000 | random.nextInt(0x1000000);
+        }
+        return pixels;
+    }
+}
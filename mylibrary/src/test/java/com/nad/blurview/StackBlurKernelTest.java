@@ -0,0 +1,239 @@
+package com.nad.blurview;
+
+import com.nad.blurview.utils.StackBlurKernel;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Uji {@link StackBlurKernel} terhadap stack blur referensi yang ditulis lurus: tiap piksel
+ * adalah rata-rata berbobot segitiga dari tetangga yang dijepit ke tepi, per sumbu.
+ */
+public class StackBlurKernelTest {
+
+    @Test
+    public void blur_matchesReference() {
+        int[][] sizes = {{1, 1}, {7, 3}, {33, 17}, {64, 64}, {200, 41}};
+        int[] radii = {1, 2, 5, 16, StackBlurKernel.MAX_RADIUS};
+        StackBlurKernel kernel = new StackBlurKernel();
+        for (int[] size : sizes) {
+            for (int radius : radii) {
+                int[] input = randomPixels(size[0] * size[1], radius);
+                int[] actual = input.clone();
+                kernel.blur(actual, 0, size[0], size[1], size[0], radius);
+                assertArrayEquals(size[0] + "x" + size[1] + " r" + radius,
+                        referenceBlur(input, size[0], size[1], radius), actual);
+            }
+        }
+    }
+
+    @Test
+    public void blur_parallelMatchesReference() {
+        StackBlurKernel kernel = new StackBlurKernel();
+        kernel.setParallelism(4);
+        int width = 300, height = 250;
+        for (int radius : new int[]{1, 9, StackBlurKernel.MAX_RADIUS}) {
+            int[] input = randomPixels(width * height, radius);
+            int[] actual = input.clone();
+            kernel.blur(actual, 0, width, height, width, radius);
+            assertArrayEquals("r" + radius, referenceBlur(input, width, height, radius), actual);
+        }
+    }
+
+    @Test
+    public void blur_radiusOne() {
+        int[] input = randomPixels(12 * 9, 1);
+        int[] actual = input.clone();
+        new StackBlurKernel().blur(actual, 0, 12, 9, 12, 1);
+        assertArrayEquals(referenceBlur(input, 12, 9, 1), actual);
+    }
+
+    @Test
+    public void blur_maxRadiusOnSmallerBitmap() {
+        // Radius lebih besar dari bitmap: semua tetangga dijepit ke tepi
+        int radius = StackBlurKernel.MAX_RADIUS;
+        int[] input = randomPixels(10 * 6, radius);
+        int[] actual = input.clone();
+        new StackBlurKernel().blur(actual, 0, 10, 6, 10, radius);
+        assertArrayEquals(referenceBlur(input, 10, 6, radius), actual);
+    }
+
+    @Test
+    public void blur_clampsRadius() {
+        int[] input = randomPixels(40 * 30, 3);
+        int[] zero = input.clone();
+        int[] huge = input.clone();
+        StackBlurKernel kernel = new StackBlurKernel();
+        kernel.blur(zero, 0, 40, 30, 40, 0);
+        kernel.blur(huge, 0, 40, 30, 40, 1000);
+        assertArrayEquals(referenceBlur(input, 40, 30, 1), zero);
+        assertArrayEquals(referenceBlur(input, 40, 30, StackBlurKernel.MAX_RADIUS), huge);
+    }
+
+    @Test
+    public void blur_respectsOffsetAndStride() {
+        int width = 23, height = 11, stride = 31, offset = 2 * stride + 5, radius = 4;
+        int[] buffer = randomPixels(offset + height * stride, 11);
+        int[] before = buffer.clone();
+
+        int[] compact = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(buffer, offset + y * stride, compact, y * width, width);
+        }
+        int[] expected = referenceBlur(compact, width, height, radius);
+
+        new StackBlurKernel().blur(buffer, offset, width, height, stride, radius);
+
+        for (int i = 0; i < buffer.length; i++) {
+            int rel = i - offset;
+            int y = rel / stride, x = rel % stride;
+            if (rel >= 0 && y < height && x < width) {
+                assertEquals("pixel " + x + "," + y, expected[y * width + x], buffer[i]);
+            } else {
+                assertEquals("padding " + i, before[i], buffer[i]);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void blur_rejectsTooSmallBuffer() {
+        new StackBlurKernel().blur(new int[10], 0, 4, 3, 4, 2);
+    }
+
+    @Test
+    public void blurDownsampled_matchesReference() {
+        int srcWidth = 50, srcHeight = 37, factor = 4, radius = 3;
+        int width = StackBlurKernel.downsampledSize(srcWidth, factor);
+        int height = StackBlurKernel.downsampledSize(srcHeight, factor);
+        int[] src = randomPixels(srcWidth * srcHeight, 21);
+        int[] dst = new int[width * height];
+
+        new StackBlurKernel().blurDownsampled(src, 0, srcWidth, srcHeight, srcWidth, factor,
+                dst, 0, width, radius);
+
+        int[] scaled = referenceDownsample(src, srcWidth, srcHeight, factor);
+        assertArrayEquals(referenceBlur(scaled, width, height, radius), dst);
+    }
+
+    @Test
+    public void blurDownsampled_bandMatchesFullFrameInterior() {
+        // Refresh sebagian dengan capture supersampled: band dari blok sumber yang sejajar sama
+        // dengan blur penuh, kecuali sejauh radius dari tepi band
+        int factor = 3, width = 40, height = 28, radius = 4;
+        int srcWidth = width * factor, srcHeight = height * factor;
+        int[] src = randomPixels(srcWidth * srcHeight, 33);
+        int[] full = new int[width * height];
+        StackBlurKernel kernel = new StackBlurKernel();
+        kernel.blurDownsampled(src, 0, srcWidth, srcHeight, srcWidth, factor, full, 0, width, radius);
+
+        int left = 9, top = 6, bandWidth = 20, bandHeight = 15;
+        int[] band = new int[bandWidth * bandHeight];
+        kernel.blurDownsampled(src, top * factor * srcWidth + left * factor,
+                bandWidth * factor, bandHeight * factor, srcWidth, factor, band, 0, bandWidth, radius);
+
+        for (int y = radius; y < bandHeight - radius; y++) {
+            for (int x = radius; x < bandWidth - radius; x++) {
+                assertEquals("pixel " + x + "," + y,
+                        full[(top + y) * width + left + x], band[y * bandWidth + x]);
+            }
+        }
+    }
+
+    @Test
+    public void blur_secondCallDoesNotAllocate() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        org.junit.Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        org.junit.Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        int width = 120, height = 90, radius = 12;
+        int[] pixels = randomPixels(width * height, 5);
+        StackBlurKernel kernel = new StackBlurKernel();
+        kernel.blur(pixels, 0, width, height, width, radius);
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        kernel.blur(pixels, 0, width, height, width, radius);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals("bytes allocated by second blur", 0, allocated);
+    }
+
+    private static int[] randomPixels(int count, long seed) {
+        Random random = new Random(seed);
+        int[] pixels = new int[count];
+        for (int i = 0; i < count; i++) {
+            pixels[i] = 0xff000000 | random.nextInt(0x1000000);
+        }
+        return pixels;
+    }
+
+    private static int[] referenceBlur(int[] input, int width, int height, int radius) {
+        int div = (radius + 1) * (radius + 1);
+        int[] r = new int[width * height], g = new int[width * height], b = new int[width * height];
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int rs = 0, gs = 0, bs = 0;
+                for (int i = -radius; i <= radius; i++) {
+                    int p = input[y * width + clamp(x + i, width - 1)];
+                    int weight = radius + 1 - Math.abs(i);
+                    rs += ((p >> 16) & 0xff) * weight;
+                    gs += ((p >> 8) & 0xff) * weight;
+                    bs += (p & 0xff) * weight;
+                }
+                r[y * width + x] = rs / div;
+                g[y * width + x] = gs / div;
+                b[y * width + x] = bs / div;
+            }
+        }
+
+        int[] out = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int rs = 0, gs = 0, bs = 0;
+                for (int i = -radius; i <= radius; i++) {
+                    int at = clamp(y + i, height - 1) * width + x;
+                    int weight = radius + 1 - Math.abs(i);
+                    rs += r[at] * weight;
+                    gs += g[at] * weight;
+                    bs += b[at] * weight;
+                }
+                out[y * width + x] = 0xff000000 | (rs / div) << 16 | (gs / div) << 8 | (bs / div);
+            }
+        }
+        return out;
+    }
+
+    private static int[] referenceDownsample(int[] src, int srcWidth, int srcHeight, int factor) {
+        int width = StackBlurKernel.downsampledSize(srcWidth, factor);
+        int height = StackBlurKernel.downsampledSize(srcHeight, factor);
+        int[] out = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int rs = 0, gs = 0, bs = 0, n = 0;
+                for (int sy = y * factor; sy < Math.min(srcHeight, (y + 1) * factor); sy++) {
+                    for (int sx = x * factor; sx < Math.min(srcWidth, (x + 1) * factor); sx++) {
+                        int p = src[sy * srcWidth + sx];
+                        rs += (p >> 16) & 0xff;
+                        gs += (p >> 8) & 0xff;
+                        bs += p & 0xff;
+                        n++;
+                    }
+                }
+                out[y * width + x] = (rs / n) << 16 | (gs / n) << 8 | (bs / n);
+            }
+        }
+        return out;
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(max, value));
+    }
+}